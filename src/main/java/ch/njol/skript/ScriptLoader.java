@@ -24,10 +24,14 @@ import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.config.SimpleNode;
 import ch.njol.skript.events.bukkit.PreScriptLoadEvent;
 import ch.njol.skript.lang.Section;
+import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.Statement;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.TriggerSection;
+import ch.njol.skript.lang.parser.ParseCache;
+import ch.njol.skript.lang.parser.ParseMemo;
+import ch.njol.skript.lang.parser.ParseStatistics;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.CountingLogHandler;
 import ch.njol.skript.log.LogEntry;
@@ -56,19 +60,25 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -488,19 +498,20 @@ public class ScriptLoader {
 
 		Bukkit.getPluginManager().callEvent(new PreScriptLoadEvent(configs));
 		
-		ScriptInfo scriptInfo = new ScriptInfo();
-
-		List<NonNullPair<Script, List<Structure>>> scripts = new ArrayList<>();
+		// Scripts may be loaded by several threads at once, so each one gets its own slot,
+		// which also keeps the structures in the order of the configs regardless of which script finishes first
+		@SuppressWarnings("unchecked")
+		NonNullPair<Script, List<Structure>>[] loadedScripts = new NonNullPair[configs.size()];
 
 		List<CompletableFuture<Void>> scriptInfoFutures = new ArrayList<>();
-		for (Config config : configs) {
+		for (int i = 0; i < configs.size(); i++) {
+			Config config = configs.get(i);
 			if (config == null)
 				throw new NullPointerException();
 			
+			int index = i;
 			CompletableFuture<Void> future = makeFuture(() -> {
-				NonNullPair<Script, List<Structure>> pair = loadScript(config);
-				scripts.add(pair);
-				scriptInfo.add(new ScriptInfo(1, pair.getSecond().size()));
+				loadedScripts[index] = loadScript(config);
 				return null;
 			}, openCloseable);
 			
@@ -509,6 +520,13 @@ public class ScriptLoader {
 		
 		return CompletableFuture.allOf(scriptInfoFutures.toArray(new CompletableFuture[0]))
 			.thenApply(unused -> {
+				ScriptInfo scriptInfo = new ScriptInfo();
+				List<NonNullPair<Script, List<Structure>>> scripts = new ArrayList<>(loadedScripts.length);
+				for (NonNullPair<Script, List<Structure>> pair : loadedScripts) {
+					scripts.add(pair);
+					scriptInfo.add(new ScriptInfo(1, pair.getSecond().size()));
+				}
+
 				// TODO in the future this won't work when parallel loading is fixed
 				// It does now though so let's avoid calling getParser() a bunch.
 				ParserInstance parser = getParser();
@@ -549,33 +567,34 @@ public class ScriptLoader {
 					});
 					parser.setInactive();
 
-					// TODO in the future, Structure#load/Structure#postLoad should be split across multiple threads if parallel loading is enabled.
-					// However, this is not possible right now as reworks in multiple areas will be needed.
-					// For example, the "Commands" class still uses a static list for currentArguments that is cleared between loads.
-					// Until these reworks happen, limiting main loading to asynchronous (not parallel) is the only choice we have.
-
 					// loading
-					pairs.removeIf(pair -> {
-						Structure structure = pair.getSecond();
-
-						parser.setActive(pair.getFirst().getFirst());
-						parser.setCurrentStructure(structure);
-						parser.setNode(structure.getEntryContainer().getSource());
-
-						try {
-							if (!structure.load()) {
-								pair.getFirst().getSecond().remove(structure);
-								return true;
-							}
-						} catch (Exception e) {
-							//noinspection ThrowableNotThrown
-							Skript.exception(e, "An error occurred while trying to load a Structure.");
-							pair.getFirst().getSecond().remove(structure);
-							return true;
+					// Structures that support it are loaded by all loader threads at once if parallel loading is enabled.
+					// Pre-loading and post-loading stay on this thread, as they register things with Skript and Bukkit.
+					boolean[] loaded = new boolean[pairs.size()];
+					int start = 0;
+					while (start < pairs.size()) {
+						int end = start + 1;
+						if (isParallel() && pairs.get(start).getSecond().isParallelLoadable()) {
+							Structure.Priority priority = pairs.get(start).getSecond().getPriority();
+							while (end < pairs.size()
+									&& pairs.get(end).getSecond().isParallelLoadable()
+									&& pairs.get(end).getSecond().getPriority().compareTo(priority) == 0)
+								end++;
 						}
-						return false;
-					});
+						if (end - start > 1) {
+							loadInParallel(pairs.subList(start, end), loaded, start);
+						} else {
+							loaded[start] = load(pairs.get(start), parser);
+						}
+						start = end;
+					}
 					parser.setInactive();
+					for (int i = pairs.size() - 1; i >= 0; i--) {
+						if (!loaded[i]) {
+							NonNullPair<NonNullPair<Script, List<Structure>>, Structure> pair = pairs.remove(i);
+							pair.getFirst().getSecond().remove(pair.getSecond());
+						}
+					}
 
 					// post-loading
 					pairs.removeIf(pair -> {
@@ -612,6 +631,75 @@ public class ScriptLoader {
 			});
 	}
 
+	/**
+	 * Loads a single structure during the {@link Structure#load()} stage.
+	 * @return Whether the structure was loaded successfully.
+	 */
+	private static boolean load(NonNullPair<NonNullPair<Script, List<Structure>>, Structure> pair, ParserInstance parser) {
+		Structure structure = pair.getSecond();
+
+		parser.setActive(pair.getFirst().getFirst());
+		parser.setCurrentStructure(structure);
+		parser.setNode(structure.getEntryContainer().getSource());
+
+		try {
+			return structure.load();
+		} catch (Exception e) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(e, "An error occurred while trying to load a Structure.");
+			return false;
+		}
+	}
+
+	/**
+	 * Loads the given structures during the {@link Structure#load()} stage, using this thread and all async loaders.
+	 * The structures are taken one by one by whichever thread is free, so a thread that finished a small trigger
+	 * takes the next one instead of waiting for the others.
+	 * <br>
+	 * The messages logged while loading a structure are retained and printed by this thread once all structures are loaded,
+	 * in the same order as if they were loaded one after another.
+	 *
+	 * @param pairs The structures to load, which must all support {@link Structure#isParallelLoadable() parallel loading}.
+	 * @param loaded The array to store whether each structure was loaded successfully in.
+	 * @param offset The index in {@code loaded} of the first structure.
+	 */
+	private static void loadInParallel(List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>> pairs, boolean[] loaded, int offset) {
+		int size = pairs.size();
+		RetainingLogHandler[] logs = new RetainingLogHandler[size];
+		AtomicInteger next = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(size);
+
+		Runnable worker = () -> {
+			ParserInstance parser = getParser();
+			int index;
+			while ((index = next.getAndIncrement()) < size) {
+				RetainingLogHandler log = SkriptLogger.startRetainingLog();
+				try {
+					loaded[offset + index] = load(pairs.get(index), parser);
+				} finally {
+					log.stop();
+					logs[index] = log;
+					done.countDown();
+				}
+			}
+			parser.setInactive();
+		};
+
+		for (int i = 1; i < Math.min(asyncLoaderSize, size); i++)
+			loadQueue.add(worker);
+		worker.run();
+
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw Skript.exception(e, "Interrupted while waiting for structures to load");
+		}
+
+		for (RetainingLogHandler log : logs)
+			log.printLog();
+	}
+
 	/**
 	 * Creates a script and loads the provided config into it.
 	 * @param config The config to load into a script.
@@ -899,6 +987,175 @@ public class ScriptLoader {
 		return loadScripts(configs, openCloseable);
 	}
 	
+	/**
+	 * Reloads a single Script, only reloading the triggers that were changed.
+	 * <br>
+	 * The Script's Structures are compared to the sections of its file. A Structure is unchanged if its section,
+	 *  including the contents, their line numbers and their comments, is still the same. Unchanged Structures are kept as they are,
+	 *  while changed ones are unloaded and replaced by the newly loaded ones at once, on the main server thread.
+	 *  Afterwards, the Script's Triggers run in the same order as after reloading the whole Script.
+	 * <br>
+	 * Only {@link SkriptEvent}s are reloaded like this, as other Structures such as options, functions and commands
+	 *  can affect the rest of the Script. If any other Structure was added, changed or removed,
+	 *  the whole Script is reloaded using {@link #reloadScript(Script, OpenCloseable)} instead.
+	 * <br>
+	 * Note that unchanged triggers are not unloaded, so they are not called for events such as the script's {@code on load}.
+	 * @param script The Script to reload.
+	 * @param openCloseable An {@link OpenCloseable} that will be called before and after
+	 *                         loading the changed Structures (see {@link #makeFuture(Supplier, OpenCloseable)}).
+	 * @return Info on the loaded Structures. If nothing was changed, this contains no files.
+	 */
+	public static CompletableFuture<ScriptInfo> reloadScriptIncrementally(Script script, OpenCloseable openCloseable) {
+		if (!loadedScripts.contains(script))
+			throw new SkriptAPIException("The script at '" + script.getConfig().getPath() + "' is not loaded!");
+		File file = script.getConfig().getFile();
+		if (file == null)
+			throw new IllegalArgumentException("A script must have a file to be reloaded.");
+
+		Config config = loadStructure(file);
+		if (config == null)
+			return CompletableFuture.completedFuture(new ScriptInfo());
+
+		// Match the sections of the file with the Structures they were loaded into
+		Map<String, Deque<Structure>> unchanged = new HashMap<>();
+		for (Structure structure : script.getStructures()) {
+			unchanged.computeIfAbsent(getSource(structure.getEntryContainer().getSource()), source -> new ArrayDeque<>())
+				.add(structure);
+		}
+		List<Node> changedNodes = new ArrayList<>();
+		for (Node node : config.getMainNode()) {
+			Deque<Structure> structures = node instanceof SectionNode ? unchanged.get(getSource((SectionNode) node)) : null;
+			if (structures == null || structures.poll() == null)
+				changedNodes.add(node);
+		}
+		List<Structure> removed = new ArrayList<>();
+		for (Deque<Structure> structures : unchanged.values())
+			removed.addAll(structures);
+
+		if (changedNodes.isEmpty() && removed.isEmpty())
+			return CompletableFuture.completedFuture(new ScriptInfo());
+		for (Structure structure : removed) {
+			if (!(structure instanceof SkriptEvent))
+				return reloadScript(script, openCloseable);
+		}
+
+		// Parse the changed sections first, so that nothing has to be undone if the whole script must be reloaded after all
+		ParserInstance parser = getParser();
+		List<Structure> added = new ArrayList<>();
+		boolean incremental = true;
+		RetainingLogHandler parseLog = SkriptLogger.startRetainingLog();
+		try {
+			parser.setActive(script);
+			for (Node node : changedNodes) {
+				parser.setNode(node);
+				if (!(node instanceof SectionNode)) {
+					Skript.error("invalid line - all code has to be put into triggers");
+					continue;
+				}
+
+				String line = node.getKey();
+				if (line == null || !SkriptParser.validateLine(line))
+					continue;
+				line = replaceOptions(line);
+
+				Structure structure = Structure.parse(line, (SectionNode) node, "Can't understand this structure: " + line);
+				if (structure == null)
+					continue;
+				if (!(structure instanceof SkriptEvent)) {
+					incremental = false;
+					break;
+				}
+				added.add(structure);
+			}
+		} finally {
+			parser.setInactive();
+			parseLog.stop();
+		}
+		if (!incremental) {
+			parseLog.clear(); // the sections are parsed again
+			return reloadScript(script, openCloseable);
+		}
+
+		return makeFuture(() -> {
+			parseLog.printLog();
+
+			ParserInstance loader = getParser();
+			loader.setActive(script);
+			try {
+				added.removeIf(structure -> {
+					loader.setCurrentStructure(structure);
+					loader.setNode(structure.getEntryContainer().getSource());
+					try {
+						return !structure.preLoad() || !structure.load();
+					} catch (Exception e) {
+						//noinspection ThrowableNotThrown
+						Skript.exception(e, "An error occurred while trying to load a Structure.");
+						return true;
+					}
+				});
+			} finally {
+				loader.setInactive();
+			}
+
+			// Swap the Structures in one go on the main thread, so that no event is handled by both or neither version of a trigger
+			Callable<Void> swap = () -> {
+				ParserInstance swapper = getParser();
+				swapper.setActive(script);
+				try {
+					for (Structure structure : removed)
+						structure.unload();
+					for (Structure structure : removed)
+						structure.postUnload();
+					added.removeIf(structure -> {
+						swapper.setCurrentStructure(structure);
+						swapper.setNode(structure.getEntryContainer().getSource());
+						try {
+							return !structure.postLoad();
+						} catch (Exception e) {
+							//noinspection ThrowableNotThrown
+							Skript.exception(e, "An error occurred while trying to postLoad a Structure.");
+							return true;
+						}
+					});
+					script.replaceStructures(removed, added);
+
+					// The new Triggers were appended, so restore the order of the file
+					Set<Class<? extends Event>> events = new HashSet<>();
+					for (Structure structure : added)
+						events.addAll(Arrays.asList(((SkriptEvent) structure).getEventClasses()));
+					SkriptEventHandler.reorderTriggers(script, events);
+				} finally {
+					swapper.setInactive();
+				}
+				return null;
+			};
+			if (isAsync()) {
+				Task.callSync(swap);
+			} else {
+				swap.call();
+			}
+
+			return new ScriptInfo(1, added.size());
+		}, openCloseable);
+	}
+
+	/**
+	 * @return The text of the given section and all of its contents, including their line numbers.
+	 */
+	private static String getSource(SectionNode node) {
+		StringBuilder source = new StringBuilder();
+		appendSource(node, source);
+		return source.toString();
+	}
+
+	private static void appendSource(Node node, StringBuilder source) {
+		source.append(node.getLine()).append(' ').append(node.save()).append('\n');
+		if (node instanceof SectionNode) {
+			for (Node child : (SectionNode) node)
+				appendSource(child, source);
+		}
+	}
+	
 	/*
 	 * Code Loading Methods
 	 */
@@ -929,9 +1186,15 @@ public class ScriptLoader {
 			parser.setIndentation(parser.getIndentation() + "    ");
 		
 		ArrayList<TriggerItem> items = new ArrayList<>();
+		ParseStatistics statistics = parser.getData(ParseStatistics.class);
+		ParseMemo memo = parser.getData(ParseMemo.class);
 
 		for (Node subNode : node) {
 			parser.setNode(subNode);
+			long tried = statistics.getPatternsTried();
+			long matched = statistics.getPatternsMatched();
+			long skipped = statistics.getPatternsSkipped();
+			long memoHits = statistics.getMemoHits();
 
 			String subNodeKey = subNode.getKey();
 			if (subNodeKey == null)
@@ -942,7 +1205,13 @@ public class ScriptLoader {
 
 			if (subNode instanceof SimpleNode) {
 				long start = System.currentTimeMillis();
-				Statement stmt = Statement.parse(expr, "Can't understand this condition/effect: " + expr);
+				Statement stmt;
+				memo.begin();
+				try {
+					stmt = Statement.parse(expr, ParseCache.getHint(subNode), "Can't understand this condition/effect: " + expr);
+				} finally {
+					memo.end();
+				}
 				if (stmt == null)
 					continue;
 				long requiredTime = SkriptConfig.longParseTimeWarningThreshold.value().getMilliSeconds();
@@ -955,20 +1224,36 @@ public class ScriptLoader {
 						);
 				}
 
-				if (Skript.debug() || subNode.debug())
+				if (Skript.debug() || subNode.debug()) {
 					Skript.debug(SkriptColor.replaceColorChar(parser.getIndentation() + stmt.toString(null, true)));
+					Skript.debug(parser.getIndentation() + "(tried " + (statistics.getPatternsTried() - tried) + " patterns, "
+						+ (statistics.getPatternsMatched() - matched) + " matched, " + (statistics.getPatternsSkipped() - skipped) + " skipped, " + (statistics.getMemoHits() - memoHits) + " failures reused)");
+				}
 
+				stmt.setLineNumber(subNode.getLine());
+				ParseCache.setHint(subNode, stmt.getClass());
 				items.add(stmt);
 			} else if (subNode instanceof SectionNode) {
 				TypeHints.enterScope(); // Begin conditional type hints
 
-				Section section = Section.parse(expr, "Can't understand this section: " + expr, (SectionNode) subNode, items);
+				Section section;
+				memo.begin();
+				try {
+					section = Section.parse(expr, "Can't understand this section: " + expr, (SectionNode) subNode, items, ParseCache.getHint(subNode));
+				} finally {
+					memo.end();
+				}
 				if (section == null)
 					continue;
 
-				if (Skript.debug() || subNode.debug())
+				if (Skript.debug() || subNode.debug()) {
 					Skript.debug(SkriptColor.replaceColorChar(parser.getIndentation() + section.toString(null, true)));
+					Skript.debug(parser.getIndentation() + "(tried " + (statistics.getPatternsTried() - tried) + " patterns, "
+						+ (statistics.getPatternsMatched() - matched) + " matched, " + (statistics.getPatternsSkipped() - skipped) + " skipped, " + (statistics.getMemoHits() - memoHits) + " failures reused, including the section's contents)");
+				}
 
+				section.setLineNumber(subNode.getLine());
+				ParseCache.setHint(subNode, section.getClass());
 				items.add(section);
 
 				// Destroy these conditional type hints
@@ -0,0 +1,86 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.plugin.Plugin;
+import org.skriptlang.skript.lang.script.Script;
+
+import ch.njol.skript.ScriptLoader.ScriptInfo;
+import ch.njol.skript.util.Task;
+import ch.njol.util.OpenCloseable;
+
+/**
+ * Checks the files of all loaded scripts every second, and reloads the scripts whose files were modified.
+ * Scripts are reloaded {@link ScriptLoader#reloadScriptIncrementally incrementally} if {@link SkriptConfig#incrementalScriptReloading} is enabled.
+ *
+ * @see SkriptConfig#reloadChangedScripts
+ */
+public class ScriptWatcher extends Task {
+
+	private final Map<File, Long> lastModified = new HashMap<>();
+
+	/**
+	 * Files of the scripts that are being reloaded, which aren't checked until they are done.
+	 */
+	private final Set<File> reloading = new HashSet<>();
+
+	public ScriptWatcher(Plugin plugin) {
+		super(plugin, 20, 20);
+	}
+
+	@Override
+	public void run() {
+		Set<File> files = new HashSet<>();
+		for (Script script : ScriptLoader.getLoadedScripts()) {
+			File file = script.getConfig().getFile();
+			if (file == null || reloading.contains(file))
+				continue;
+			files.add(file);
+
+			long modified = file.lastModified();
+			Long previous = lastModified.put(file, modified);
+			if (previous == null || previous == modified || modified == 0)
+				continue;
+
+			Skript.info("Reloading '" + script.getConfig().getFileName() + "' as it was changed");
+			reloading.add(file);
+			CompletableFuture<ScriptInfo> future;
+			if (SkriptConfig.incrementalScriptReloading.value()) {
+				future = ScriptLoader.reloadScriptIncrementally(script, OpenCloseable.EMPTY);
+			} else {
+				future = ScriptLoader.reloadScript(script, OpenCloseable.EMPTY);
+			}
+			future.whenComplete((info, e) -> Task.callSync(() -> {
+				lastModified.put(file, file.lastModified());
+				reloading.remove(file);
+				return null;
+			}));
+		}
+		files.addAll(reloading);
+		lastModified.keySet().retainAll(files);
+	}
+
+}
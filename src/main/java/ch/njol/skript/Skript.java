@@ -42,8 +42,10 @@ import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptEventInfo;
 import ch.njol.skript.lang.Statement;
 import ch.njol.skript.lang.SyntaxElementInfo;
+import ch.njol.skript.lang.SyntaxIndex;
 import ch.njol.skript.lang.Trigger;
 import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.parser.ParseCache;
 import ch.njol.skript.lang.util.SimpleExpression;
 import ch.njol.skript.localization.Language;
 import ch.njol.skript.localization.Message;
@@ -807,11 +809,17 @@ public final class Skript extends JavaPlugin implements Listener {
 				Date start = new Date();
 				CountingLogHandler logHandler = new CountingLogHandler(Level.SEVERE);
 
+				if (SkriptConfig.enableScriptCaching.value()) {
+					ParseCache.enable(new File(getDataFolder(), "cache" + File.separator + "parse-cache.dat"));
+					closeOnDisable(ParseCache::save);
+				}
+
 				File scriptsFolder = getScriptsFolder();
 				ScriptLoader.updateDisabledScripts(scriptsFolder.toPath());
 				ScriptLoader.loadScripts(scriptsFolder, logHandler)
 					.thenAccept(scriptInfo -> {
 						try {
+							ParseCache.save();
 							if (logHandler.getCount() == 0)
 								Skript.info(m_no_errors.toString());
 							if (scriptInfo.files == 0)
@@ -825,6 +833,9 @@ public final class Skript extends JavaPlugin implements Listener {
 
 							Skript.info(m_finished_loading.toString());
 
+							if (SkriptConfig.reloadChangedScripts.value())
+								closeOnDisable(new ScriptWatcher(Skript.this));
+
 							// EvtSkript.onSkriptStart should be called on main server thread
 							if (!ScriptLoader.isAsync()) {
 								EvtSkript.onSkriptStart();
@@ -1271,6 +1282,7 @@ public final class Skript extends JavaPlugin implements Listener {
 		acceptRegistrations = false;
 		
 		Classes.onRegistrationsStop();
+		SyntaxIndex.build();
 	}
 	
 	// ================ ADDONS ================
@@ -1419,7 +1431,18 @@ public final class Skript extends JavaPlugin implements Listener {
 	}
 	
 	public static Iterator<ExpressionInfo<?, ?>> getExpressions(final Class<?>... returnTypes) {
-		return new CheckedIterator<>(getExpressions(), new NullableChecker<ExpressionInfo<?, ?>>() {
+		return filterExpressions(getExpressions(), returnTypes);
+	}
+	
+	/**
+	 * @return The expressions that could parse the given text and return one of the given types, see {@link SyntaxIndex}.
+	 */
+	public static Iterator<ExpressionInfo<?, ?>> getExpressions(final String expr, final Class<?>... returnTypes) {
+		return filterExpressions(SyntaxIndex.getExpressionCandidates(expr), returnTypes);
+	}
+	
+	private static Iterator<ExpressionInfo<?, ?>> filterExpressions(final Iterator<ExpressionInfo<?, ?>> expressions, final Class<?>[] returnTypes) {
+		return new CheckedIterator<>(expressions, new NullableChecker<ExpressionInfo<?, ?>>() {
 			@Override
 			public boolean check(final @Nullable ExpressionInfo<?, ?> i) {
 				if (i == null || i.returnType == Object.class)
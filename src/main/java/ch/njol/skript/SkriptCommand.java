@@ -18,6 +18,7 @@
  */
 package ch.njol.skript;
 
+import ch.njol.skript.ScriptLoader.ScriptInfo;
 import ch.njol.skript.aliases.Aliases;
 import ch.njol.skript.command.CommandHelp;
 import ch.njol.skript.doc.Documentation;
@@ -30,6 +31,7 @@ import ch.njol.skript.log.TimingLogHandler;
 import ch.njol.skript.test.runner.SkriptTestEvent;
 import ch.njol.skript.test.runner.TestMode;
 import ch.njol.skript.test.runner.TestTracker;
+import ch.njol.skript.timings.SkriptProfiler;
 import ch.njol.skript.util.ExceptionUtils;
 import ch.njol.skript.util.FileUtils;
 import ch.njol.skript.util.SkriptColor;
@@ -46,12 +48,20 @@ import org.skriptlang.skript.lang.script.Script;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class SkriptCommand implements CommandExecutor {
@@ -78,6 +88,10 @@ public class SkriptCommand implements CommandExecutor {
 			.add("check")
 			.add("changes")
 			.add("download")
+		).add(new CommandHelp("profile", SkriptColor.DARK_RED)
+			.add("start")
+			.add("stop")
+			.add("report")
 		).add("info"
 		).add("help");
 
@@ -185,12 +199,17 @@ public class SkriptCommand implements CommandExecutor {
 						reloading(sender, "script", scriptFile.getName());
 
 						Script script = ScriptLoader.getScript(scriptFile);
-						if (script != null)
-							ScriptLoader.unloadScript(script);
-						ScriptLoader.loadScripts(scriptFile, OpenCloseable.combine(logHandler, timingLogHandler))
-							.thenAccept(scriptInfo ->
-								reloaded(sender, logHandler, timingLogHandler, "script", scriptFile.getName())
-							);
+						CompletableFuture<ScriptInfo> future;
+						if (script != null && SkriptConfig.incrementalScriptReloading.value()) {
+							future = ScriptLoader.reloadScriptIncrementally(script, OpenCloseable.combine(logHandler, timingLogHandler));
+						} else {
+							if (script != null)
+								ScriptLoader.unloadScript(script);
+							future = ScriptLoader.loadScripts(scriptFile, OpenCloseable.combine(logHandler, timingLogHandler));
+						}
+						future.thenAccept(scriptInfo ->
+							reloaded(sender, logHandler, timingLogHandler, "script", scriptFile.getName())
+						);
 					} else {
 						final String fileName = scriptFile.getName();
 						reloading(sender, "scripts in folder", fileName);
@@ -356,6 +375,22 @@ public class SkriptCommand implements CommandExecutor {
 				}
 			}
 
+			else if (args[0].equalsIgnoreCase("profile")) {
+				if (args[1].equalsIgnoreCase("start")) {
+					SkriptProfiler.start();
+					info(sender, "profile.started");
+				} else if (args[1].equalsIgnoreCase("stop")) {
+					if (!SkriptProfiler.isEnabled()) {
+						error(sender, "profile.not running");
+						return true;
+					}
+					SkriptProfiler.stop();
+					saveProfile(sender);
+				} else if (args[1].equalsIgnoreCase("report")) {
+					saveProfile(sender);
+				}
+			}
+
 			else if (args[0].equalsIgnoreCase("info")) {
 				info(sender, "info.aliases");
 				info(sender, "info.documentation");
@@ -458,6 +493,33 @@ public class SkriptCommand implements CommandExecutor {
 		return true;
 	}
 	
+	private static void saveProfile(CommandSender sender) {
+		File folder = new File(Skript.getInstance().getDataFolder(), "profiles");
+		String name = "profile-" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+		File summary = new File(folder, name + ".txt");
+		File stacks = new File(folder, name + ".collapsed");
+		try {
+			folder.mkdirs();
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(summary), StandardCharsets.UTF_8)) {
+				SkriptProfiler.writeSummary(writer);
+			}
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(stacks), StandardCharsets.UTF_8)) {
+				SkriptProfiler.writeCollapsedStacks(writer);
+			}
+		} catch (IOException e) {
+			error(sender, "profile.io error", ExceptionUtils.toString(e));
+			return;
+		}
+		info(sender, "profile.saved", String.format(Locale.ENGLISH, "%.1f", SkriptProfiler.getDuration() / 1e9), summary.getName(), stacks.getName());
+
+		List<SkriptProfiler.Entry> triggers = SkriptProfiler.getTriggers();
+		if (triggers.isEmpty())
+			return;
+		info(sender, "profile.slowest triggers");
+		for (SkriptProfiler.Entry trigger : triggers.subList(0, Math.min(5, triggers.size())))
+			info(sender, "profile.trigger", trigger.getName(), trigger.getCalls(), String.format(Locale.ENGLISH, "%.1f", trigger.getTotalTime() / 1e6));
+	}
+	
 	private static final ArgsMessage m_invalid_script = new ArgsMessage(CONFIG_NODE + ".invalid script");
 	private static final ArgsMessage m_invalid_folder = new ArgsMessage(CONFIG_NODE + ".invalid folder");
 	
@@ -189,7 +189,9 @@ public class SkriptConfig {
 	public static final Option<Boolean> disableVariableStartingWithExpressionWarnings =
 		new Option<>("disable starting a variable's name with an expression warnings", false);
 	
-	@Deprecated
+	/**
+	 * Whether to use the {@link ch.njol.skript.lang.parser.ParseCache}.
+	 */
 	public static final Option<Boolean> enableScriptCaching = new Option<>("enable script caching", false)
 			.optional(true);
 	
@@ -248,6 +250,9 @@ public class SkriptConfig {
 	public static final Option<Boolean> caseInsensitiveVariables = new Option<>("case-insensitive variables", true)
 			.setter(t -> Variables.caseInsensitiveVariables = t)
 			.optional(true);
+
+	public static final Option<Boolean> variableWriteBehind = new Option<>("variable write-behind", false)
+			.optional(true);
 	
 	public static final Option<Boolean> colorResetCodes = new Option<>("color codes reset formatting", true)
 			.setter(t -> {
@@ -277,6 +282,18 @@ public class SkriptConfig {
 			})
 			.optional(true);
 	
+	/**
+	 * Whether reloading a single script only reloads its changed triggers, see {@link ScriptLoader#reloadScriptIncrementally}.
+	 */
+	public static final Option<Boolean> incrementalScriptReloading = new Option<>("incremental script reloading", false)
+			.optional(true);
+
+	/**
+	 * Whether scripts are reloaded automatically when their files change, see {@link ScriptWatcher}.
+	 */
+	public static final Option<Boolean> reloadChangedScripts = new Option<>("reload changed scripts", false)
+			.optional(true);
+	
 	public static final Option<Boolean> allowUnsafePlatforms = new Option<>("allow unsafe platforms", false)
 			.optional(true);
 
@@ -20,6 +20,10 @@ package ch.njol.skript;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,7 +31,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
 import org.bukkit.event.Cancellable;
@@ -41,6 +44,7 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.plugin.EventExecutor;
 import org.bukkit.plugin.RegisteredListener;
 import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.script.Script;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
@@ -87,21 +91,80 @@ public final class SkriptEventHandler {
 	/**
 	 * A Multimap tracking what Triggers are paired with what Events.
 	 * Each Event effectively maps to an ArrayList of Triggers.
+	 * Modifications must be made while synchronized on this map, followed by a call to {@link #invalidateDispatchTable()}.
 	 */
 	private static final Multimap<Class<? extends Event>, Trigger> triggers = ArrayListMultimap.create();
 
+	private static final Trigger[] NO_TRIGGERS = new Trigger[0];
+
+	/**
+	 * A copy-on-write dispatch table mapping concrete Event classes to the Triggers to execute for them.
+	 * The Triggers of each class are stored per {@link EventPriority}, indexed by the priority's ordinal.
+	 * Entries are created lazily the first time an Event class is fired and the whole table is
+	 *  discarded whenever a Trigger is registered or unregistered.
+	 * This map is never modified once published, which allows it to be read without any locking.
+	 */
+	private static volatile Map<Class<? extends Event>, Trigger[][]> dispatchTable = Collections.emptyMap();
+
+	/**
+	 * Discards all cached dispatch entries. Must be called after {@link #triggers} has been modified.
+	 */
+	private static void invalidateDispatchTable() {
+		dispatchTable = Collections.emptyMap();
+	}
+
 	/**
-	 * A utility method to get all Triggers registered under the provided Event class.
+	 * A utility method to get all Triggers registered under the provided Event class for the provided priority.
+	 * The returned array is shared and must not be modified.
 	 * @param event The event to find pairs from.
-	 * @return A List containing all Triggers registered under the provided Event class.
+	 * @param priority The priority the Triggers should be listening at.
+	 * @return An array containing all Triggers registered under the provided Event class with the provided priority,
+	 *  in the same order as they were registered.
 	 */
-	private static List<Trigger> getTriggers(Class<? extends Event> event) {
-		HandlerList eventHandlerList = getHandlerList(event);
-		assert eventHandlerList != null; // It had one at some point so this should remain true
-		return triggers.asMap().entrySet().stream()
-				.filter(entry -> entry.getKey().isAssignableFrom(event) && getHandlerList(entry.getKey()) == eventHandlerList)
-				.flatMap(entry -> entry.getValue().stream())
-				.collect(Collectors.toList()); // forces evaluation now and prevents us from having to call getTriggers again if very high logging is enabled
+	private static Trigger[] getTriggers(Class<? extends Event> event, EventPriority priority) {
+		Trigger[][] triggersByPriority = dispatchTable.get(event);
+		if (triggersByPriority == null)
+			triggersByPriority = computeDispatchEntry(event);
+		return triggersByPriority[priority.ordinal()];
+	}
+
+	/**
+	 * Computes the dispatch entry of the provided Event class and publishes it in a new copy of {@link #dispatchTable}.
+	 * @param event The event to compute the entry of.
+	 * @return The Triggers of the provided Event class, indexed by the ordinal of their {@link EventPriority}.
+	 */
+	private static Trigger[][] computeDispatchEntry(Class<? extends Event> event) {
+		synchronized (triggers) {
+			// Another thread may have computed it in the meantime
+			Trigger[][] triggersByPriority = dispatchTable.get(event);
+			if (triggersByPriority != null)
+				return triggersByPriority;
+
+			HandlerList eventHandlerList = getHandlerList(event);
+			assert eventHandlerList != null; // It had one at some point so this should remain true
+
+			EventPriority[] priorities = EventPriority.values();
+			List<List<Trigger>> collected = new ArrayList<>(priorities.length);
+			for (int i = 0; i < priorities.length; i++)
+				collected.add(new ArrayList<>());
+			for (Entry<Class<? extends Event>, Collection<Trigger>> entry : triggers.asMap().entrySet()) {
+				if (!entry.getKey().isAssignableFrom(event) || getHandlerList(entry.getKey()) != eventHandlerList)
+					continue;
+				for (Trigger trigger : entry.getValue())
+					collected.get(trigger.getEvent().getEventPriority().ordinal()).add(trigger);
+			}
+
+			triggersByPriority = new Trigger[priorities.length][];
+			for (int i = 0; i < priorities.length; i++) {
+				List<Trigger> priorityTriggers = collected.get(i);
+				triggersByPriority[i] = priorityTriggers.isEmpty() ? NO_TRIGGERS : priorityTriggers.toArray(NO_TRIGGERS);
+			}
+
+			Map<Class<? extends Event>, Trigger[][]> newDispatchTable = new HashMap<>(dispatchTable);
+			newDispatchTable.put(event, triggersByPriority);
+			dispatchTable = newDispatchTable;
+			return triggersByPriority;
+		}
 	}
 
 	/**
@@ -112,15 +175,15 @@ public final class SkriptEventHandler {
 	 * @param priority The priority of the Event.
 	 */
 	private static void check(Event event, EventPriority priority) {
-		List<Trigger> triggers = getTriggers(event.getClass());
-		if (triggers.isEmpty())
+		Trigger[] triggers = getTriggers(event.getClass(), priority);
+		if (triggers.length == 0)
 			return;
 
 		if (Skript.logVeryHigh()) {
 			boolean hasTrigger = false;
 			for (Trigger trigger : triggers) {
 				SkriptEvent triggerEvent = trigger.getEvent();
-				if (triggerEvent.getEventPriority() == priority && Boolean.TRUE.equals(Task.callSync(() -> triggerEvent.check(event)))) {
+				if (Boolean.TRUE.equals(Task.callSync(() -> triggerEvent.check(event)))) {
 					hasTrigger = true;
 					break;
 				}
@@ -142,8 +205,6 @@ public final class SkriptEventHandler {
 
 		for (Trigger trigger : triggers) {
 			SkriptEvent triggerEvent = trigger.getEvent();
-			if (triggerEvent.getEventPriority() != priority)
-				continue;
 
 			// these methods need to be run on whatever thread the trigger is
 			Runnable execute = () -> {
@@ -256,7 +317,10 @@ public final class SkriptEventHandler {
 		if (handlerList == null)
 			return;
 
-		triggers.put(event, trigger);
+		synchronized (triggers) {
+			triggers.put(event, trigger);
+			invalidateDispatchTable();
+		}
 
 		EventPriority priority = trigger.getEvent().getEventPriority();
 
@@ -266,11 +330,45 @@ public final class SkriptEventHandler {
 		}
 	}
 
+	/**
+	 * Moves the Triggers of the provided Script that are registered for the provided Events after all other Triggers
+	 *  of those Events, in the order of their line numbers, just like loading the whole Script again would.
+	 * This is needed after only some Triggers of a Script were reloaded, as registering a Trigger always appends it.
+	 * @param script The Script whose Triggers to reorder.
+	 * @param events The Events to reorder the Triggers of.
+	 */
+	public static void reorderTriggers(Script script, Collection<Class<? extends Event>> events) {
+		synchronized (triggers) {
+			for (Class<? extends Event> event : events) {
+				List<Trigger> eventTriggers = new ArrayList<>();
+				List<Trigger> scriptTriggers = new ArrayList<>();
+				for (Trigger trigger : triggers.removeAll(event)) {
+					if (trigger.getScript() == script) {
+						scriptTriggers.add(trigger);
+					} else {
+						eventTriggers.add(trigger);
+					}
+				}
+				scriptTriggers.sort(Comparator.comparingInt(Trigger::getLineNumber));
+				eventTriggers.addAll(scriptTriggers);
+				triggers.putAll(event, eventTriggers);
+			}
+			invalidateDispatchTable();
+		}
+	}
+
 	/**
 	 * Unregisters all events tied to the provided Trigger.
 	 * @param trigger The Trigger to unregister events for.
 	 */
 	public static void unregisterBukkitEvents(Trigger trigger) {
+		synchronized (triggers) {
+			unregisterBukkitEvents_i(trigger);
+			invalidateDispatchTable();
+		}
+	}
+
+	private static void unregisterBukkitEvents_i(Trigger trigger) {
 		Iterator<Entry<Class<? extends Event>, Trigger>> entryIterator = triggers.entries().iterator();
 		entryLoop: while (entryIterator.hasNext()) {
 			Entry<Class<? extends Event>, Trigger> entry = entryIterator.next();
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -134,6 +135,17 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	@Nullable
 	private ItemMeta globalMeta;
 	
+	/**
+	 * Materials of all ItemDatas there, or null if they have changed since this was last computed.
+	 * Most checks are against items that aren't of this type at all, and this allows
+	 * rejecting those without creating ItemDatas or block state snapshots for them.
+	 * <p>
+	 * Volatile as item types are also used by asynchronous triggers: the set is only published once it's complete,
+	 * and never modified afterwards.
+	 */
+	@Nullable
+	private transient volatile EnumSet<Material> materials;
+	
 	void setItem(final @Nullable ItemType item) {
 		if (equals(item)) { // can happen if someone defines a 'x' and 'x item/block' alias that have the same value, e.g. 'dirt' and 'dirt block'
 			this.item = null;
@@ -209,6 +221,7 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 		for (final ItemData d : i) {
 			types.add(d.clone());
 		}
+		materials = null;
 	}
 
 	public ItemType(Block block) {
@@ -220,6 +233,30 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	 */
 	public void modified() {
 		item = block = null;
+		materials = null;
+	}
+	
+	/**
+	 * Checks if an item of given material could be of this type. This doesn't
+	 * compare any metadata, so the item might still not be of this type,
+	 * but if this returns false, it definitely isn't.
+	 * @param type Material of an item.
+	 * @return Whether one of the ItemDatas has given material or represents everything.
+	 */
+	private boolean mayBeOfType(Material type) {
+		EnumSet<Material> materials = this.materials;
+		if (materials == null) {
+			materials = EnumSet.noneOf(Material.class);
+			for (ItemData d : types) {
+				if (d.isAnything || d.type == null) { // Matches every material
+					materials = EnumSet.allOf(Material.class);
+					break;
+				}
+				materials.add(d.type);
+			}
+			this.materials = materials;
+		}
+		return materials.contains(type);
 	}
 	
 	/**
@@ -270,12 +307,16 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	public boolean isOfType(@Nullable ItemStack item) {
 		if (item == null)
 			return isOfType(Material.AIR, null);
+		if (!mayBeOfType(item.getType()))
+			return false;
 		return isOfType(new ItemData(item));
 	}
 	
 	public boolean isOfType(@Nullable BlockState block) {
 		if (block == null)
 			return isOfType(Material.AIR, null);
+		if (!mayBeOfType(ItemUtils.asItem(block.getType())))
+			return false;
 		
 		return isOfType(new ItemData(block));
 	}
@@ -283,10 +324,15 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	public boolean isOfType(@Nullable Block block) {
 		if (block == null)
 			return isOfType(Material.AIR, null);
+		// Only take a snapshot of the block's state when its material could match
+		if (!mayBeOfType(ItemUtils.asItem(block.getType())))
+			return false;
 		return isOfType(block.getState());
 	}
 	
 	public boolean isOfType(ItemData type) {
+		if (!type.isAnything && !mayBeOfType(type.getType()))
+			return false;
 		for (final ItemData myType : types) {
 			if (myType.equals(type)) {
 				return true;
@@ -296,11 +342,14 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	}
 	
 	public boolean isOfType(Material id, @Nullable String tags) {
+		if (!mayBeOfType(id))
+			return false;
 		return isOfType(new ItemData(id, tags));
 	}
 	
 	public boolean isOfType(Material id) {
-		// TODO avoid object creation
+		if (!mayBeOfType(id))
+			return false;
 		return isOfType(new ItemData(id, null));
 	}
 	
@@ -675,7 +724,7 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 		int needed = getAmount();
 		int found = 0;
 		for (ItemStack item : items) {
-			if (item != null && new ItemType(item).isSimilar(this)) {
+			if (item != null && mayBeOfType(item.getType()) && new ItemType(item).isSimilar(this)) {
 				found += item.getAmount();
 				if (found >= needed) {
 					if (!all)
@@ -693,7 +742,7 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 		int needed = getAmount();
 		int found = 0;
 		for (ItemStack item : items) {
-			if (item != null && new ItemType(item).isSimilar(this)) {
+			if (item != null && mayBeOfType(item.getType()) && new ItemType(item).isSimilar(this)) {
 				found += item.getAmount();
 				if (found >= needed) {
 					if (!all)
@@ -777,10 +826,10 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 					 * it to return true for two "same items", even if their
 					 * item meta is completely different.
 					 */
-					ItemData other = is != null ? new ItemData(is) : null;
-					if (other == null) {
-						continue;
+					if (is == null || !d.isAnything && is.getType() != d.getType()) {
+						continue; // Different material can't match, no need to compare metadata
 					}
+					ItemData other = new ItemData(is);
 					boolean plain = d.isPlain() != other.isPlain();
 					if (d.matchPlain(other) || other.matchAlias(d).isAtLeast(plain ? MatchQuality.EXACT : (d.isAlias() && !other.isAlias() ? MatchQuality.SAME_MATERIAL : MatchQuality.SAME_ITEM))) {
 						if (all && amount == -1) {
@@ -863,8 +912,12 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 		if (is == null || is.getType() == Material.AIR)
 			return true;
 		int added = 0;
+		int firstEmpty = buf.length;
 		for (int i = 0; i < buf.length; i++) {
-			if (ItemUtils.itemStacksEqual(is, buf[i])) {
+			if (buf[i] == null) {
+				if (firstEmpty == buf.length)
+					firstEmpty = i;
+			} else if (buf[i].getAmount() < buf[i].getMaxStackSize() && ItemUtils.itemStacksEqual(is, buf[i])) {
 				final int toAdd = Math.min(buf[i].getMaxStackSize() - buf[i].getAmount(), is.getAmount() - added);
 				added += toAdd;
 				buf[i].setAmount(buf[i].getAmount() + toAdd);
@@ -872,7 +925,8 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 					return true;
 			}
 		}
-		for (int i = 0; i < buf.length; i++) {
+		// Slots before the first empty one were already filled
+		for (int i = firstEmpty; i < buf.length; i++) {
 			if (buf[i] == null) {
 				final int toAdd = Math.min(is.getMaxStackSize(), is.getAmount() - added);
 				added += toAdd;
@@ -1102,6 +1156,7 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 				}
 			}
 		}
+		materials = null;
 	}
 	
 	/**
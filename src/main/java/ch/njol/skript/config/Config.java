@@ -32,6 +32,9 @@ import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -70,11 +73,21 @@ public class Config implements Comparable<Config> {
 	@Nullable
 	Path file = null;
 	
-	public Config(final InputStream source, final String fileName, @Nullable final File file, final boolean simple, final boolean allowEmptySections, final String defaultSeparator) throws IOException {
+	/**
+	 * The SHA-256 hash of the bytes this config was parsed from, see {@link #getHash()}.
+	 */
+	@Nullable
+	private byte[] hash;
+	
+	public Config(InputStream source, final String fileName, @Nullable final File file, final boolean simple, final boolean allowEmptySections, final String defaultSeparator) throws IOException {
 		try {
 			this.fileName = fileName;
-			if (file != null) // Must check for null before converting to path
+			MessageDigest digest = null;
+			if (file != null) { // Must check for null before converting to path
 				this.file = file.toPath();
+				digest = newDigest();
+				source = new DigestInputStream(source, digest);
+			}
 			this.simple = simple;
 			this.allowEmptySections = allowEmptySections;
 			this.defaultSeparator = defaultSeparator;
@@ -82,6 +95,8 @@ public class Config implements Comparable<Config> {
 			
 			if (source.available() == 0) {
 				main = new SectionNode(this);
+				if (digest != null)
+					hash = digest.digest();
 				Skript.warning("'" + getFileName() + "' is empty");
 				return;
 			}
@@ -92,6 +107,8 @@ public class Config implements Comparable<Config> {
 			try (ConfigReader reader = new ConfigReader(source)) {
 				main = SectionNode.load(this, reader);
 			}
+			if (digest != null)
+				hash = digest.digest();
 		} finally {
 			source.close();
 		}
@@ -209,6 +226,27 @@ public class Config implements Comparable<Config> {
 		return file;
 	}
 	
+	/**
+	 * Unlike hashing the file at {@link #getPath()}, this hash always matches the parsed nodes,
+	 * even if the file has been changed since this config was loaded.
+	 *
+	 * @return The SHA-256 hash of the bytes this config was parsed from,
+	 * or null if this config wasn't loaded with {@link #Config(InputStream, String, File, boolean, boolean, String)}.
+	 */
+	@Nullable
+	public byte[] getHash() {
+		return hash == null ? null : hash.clone();
+	}
+	
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java implementation is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+	
 	/**
 	 * @return The most recent separator. Only useful while the file is loading.
 	 */
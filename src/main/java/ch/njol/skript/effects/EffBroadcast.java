@@ -89,7 +89,7 @@ public class EffBroadcast extends Effect {
 
 		for (Expression<?> message : getMessages()) {
 			if (message instanceof VariableString) {
-				BaseComponent[] components = BungeeConverter.convert(((VariableString) message).getMessageComponents(e));
+				BaseComponent[] components = ((VariableString) message).getBaseComponents(e);
 				receivers.forEach(receiver -> receiver.spigot().sendMessage(components));
 			} else if (message instanceof ExprColoured && ((ExprColoured) message).isUnsafeFormat()) { // Manually marked as trusted
 				for (Object realMessage : message.getArray(e)) {
@@ -18,12 +18,10 @@
  */
 package ch.njol.skript.effects;
 
-import java.util.List;
 import java.util.UUID;
 
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.util.LiteralUtils;
-import ch.njol.skript.util.chat.MessageComponent;
 import ch.njol.util.coll.CollectionUtils;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -112,32 +110,32 @@ public class EffMessage extends Effect {
 		for (Expression<?> message : getMessages()) {
 
 			Object[] messageArray = null;
-			List<MessageComponent> messageComponents = null;
+			// Converted only once and then sent to all players
+			BaseComponent[][] playerMessages = null;
 
 			for (CommandSender receiver : commandSenders) {
 				if (receiver instanceof Player && message instanceof VariableString) {
-					if (messageComponents == null)
-						messageComponents = ((VariableString) message).getMessageComponents(e);
+					if (playerMessages == null)
+						playerMessages = new BaseComponent[][] {((VariableString) message).getBaseComponents(e)};
 				} else {
 					if (messageArray == null)
 						messageArray = message.getArray(e);
 				}
 
 				if (receiver instanceof Player) { // Can use JSON formatting
-					if (message instanceof VariableString) { // Process formatting that is safe
-						sendMessage((Player) receiver, sender,
-							BungeeConverter.convert(messageComponents)
-						);
-					} else if (message instanceof ExprColoured && ((ExprColoured) message).isUnsafeFormat()) { // Manually marked as trusted
-						for (Object object : messageArray) {
-							sendMessage((Player) receiver, sender, BungeeConverter.convert(ChatMessages.parse((String) object)));
-						}
-					} else { // It is just a string, no idea if it comes from a trusted source -> don't parse anything
-						for (Object object : messageArray) {
-							List<MessageComponent> components = ChatMessages.fromParsedString(toString(object));
-							sendMessage((Player) receiver, sender, BungeeConverter.convert(components));
+					if (playerMessages == null) {
+						assert messageArray != null;
+						playerMessages = new BaseComponent[messageArray.length][];
+						if (message instanceof ExprColoured && ((ExprColoured) message).isUnsafeFormat()) { // Manually marked as trusted
+							for (int i = 0; i < messageArray.length; i++)
+								playerMessages[i] = BungeeConverter.convert(ChatMessages.parse((String) messageArray[i]));
+						} else { // It is just a string, no idea if it comes from a trusted source -> don't parse anything
+							for (int i = 0; i < messageArray.length; i++)
+								playerMessages[i] = BungeeConverter.convert(ChatMessages.fromParsedString(toString(messageArray[i])));
 						}
 					}
+					for (BaseComponent[] components : playerMessages)
+						sendMessage((Player) receiver, sender, components);
 				} else { // Not a player, send plain text with legacy formatting
 					for (Object object : messageArray) {
 						receiver.sendMessage(toString(object));
@@ -495,11 +495,17 @@ public abstract class EntityData<E extends Entity> implements SyntaxElement, Ygg
 		final List<E> list = new ArrayList<>();
 		if (worlds == null)
 			worlds = Bukkit.getWorlds().toArray(new World[0]);
+		// Only get entities of the given types' classes from the worlds instead of e.g. all entities when type is Entity
+		final Class<?>[] classes = new Class<?>[types.length];
+		for (int i = 0; i < types.length; i++)
+			classes[i] = types[i].getType();
 		for (final World w : worlds) {
-			for (final E e : w.getEntitiesByClass(type)) {
+			for (final Entity e : w.getEntitiesByClasses(classes)) {
+				if (!type.isInstance(e))
+					continue;
 				for (final EntityData<?> t : types) {
 					if (t.isInstance(e)) {
-						list.add(e);
+						list.add((E) e);
 						break;
 					}
 				}
@@ -30,6 +30,7 @@ import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.Variable;
 import ch.njol.skript.lang.util.SimpleExpression;
+import ch.njol.skript.variables.ListVariableNode;
 import ch.njol.util.Kleenean;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -106,9 +107,25 @@ public class ExprAmount extends SimpleExpression<Long> {
 			}
 			return new Long[]{(long) currentSize};
 		}
+		Expression<?>[] expressions = exprs.getExpressions();
+		if (expressions.length == 1 && isUnconvertedListVariable(expressions[0])) {
+			// The size of a list variable is tracked by the list itself, no need to get all of its values
+			Object var = ((Variable<?>) expressions[0]).getRaw(e);
+			if (var == null)
+				return new Long[]{0L};
+			if (var instanceof ListVariableNode)
+				return new Long[]{(long) ((ListVariableNode) var).getSize()};
+		}
 		return new Long[]{(long) exprs.getArray(e).length};
 	}
 
+	/**
+	 * @return whether the given expression is a list variable whose values are all returned as they are stored.
+	 */
+	private static boolean isUnconvertedListVariable(Expression<?> expr) {
+		return expr instanceof Variable<?> && ((Variable<?>) expr).isList() && expr.getReturnType() == Object.class;
+	}
+
 	@SuppressWarnings("unchecked")
 	private static int getRecursiveSize(Map<String, ?> map) {
 		int count = 0;
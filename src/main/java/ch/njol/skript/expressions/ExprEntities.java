@@ -171,8 +171,9 @@ public class ExprEntities extends SimpleExpression<Entity> {
 			Collection<Entity> es = l.getWorld().getNearbyEntities(l, d, d, d);
 			double radiusSquared = d * d * Skript.EPSILON_MULT;
 			EntityData<?>[] ts = types.getAll(e);
+			Location location = new Location(null, 0, 0, 0); // Reused to not create a location for every entity
 			return new CheckedIterator<>(es.iterator(), e1 -> {
-					if (e1 == null || e1.getLocation().distanceSquared(l) > radiusSquared)
+					if (e1 == null || e1.getLocation(location).distanceSquared(l) > radiusSquared)
 						return false;
 					for (EntityData<?> t : ts) {
 						if (t.isInstance(e1))
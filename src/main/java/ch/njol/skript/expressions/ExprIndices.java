@@ -31,10 +31,11 @@ import ch.njol.skript.lang.util.SimpleExpression;
 import org.skriptlang.skript.lang.comparator.Comparators;
 import ch.njol.skript.util.LiteralUtils;
 import ch.njol.util.Kleenean;
+import ch.njol.util.Pair;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.Map;
+import java.util.List;
 import java.util.Map.Entry;
 
 @Name("Indices of List")
@@ -91,23 +92,26 @@ public class ExprIndices extends SimpleExpression<String> {
 
 	@Nullable
 	@Override
-	@SuppressWarnings({"unchecked", "ConstantConditions"})
+	@SuppressWarnings("ConstantConditions")
 	protected String[] get(Event e) {
-		Map<String, Object> variable = (Map<String, Object>) list.getRaw(e);
+		List<Pair<String, Object>> entries = list.getListEntries(e);
 
-		if (variable == null) {
+		if (entries == null) {
 			return null;
 		}
 
 		if (sort) {
 			int direction = descending ? -1 : 1;
-			return variable.entrySet().stream()
+			return entries.stream()
 				.sorted((a, b) -> compare(a, b, direction))
 				.map(Entry::getKey)
 				.toArray(String[]::new);
 		}
 
-		return variable.keySet().toArray(new String[0]);
+		String[] indices = new String[entries.size()];
+		for (int i = 0; i < indices.length; i++)
+			indices[i] = entries.get(i).getKey();
+		return indices;
 	}
 
 	@Override
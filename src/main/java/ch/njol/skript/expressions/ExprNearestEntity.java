@@ -32,12 +32,14 @@ import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.util.Kleenean;
 import ch.njol.util.StringUtils;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import ch.njol.skript.lang.util.SimpleExpression;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Arrays;
+import java.util.Collection;
 
 @Name("Nearest Entity")
 @Description("Gets the entity nearest to a location or another entity.")
@@ -58,6 +60,13 @@ public class ExprNearestEntity extends SimpleExpression<Entity> {
 				"[the] %*entitydatas% nearest [to %entity/location%]");
 	}
 
+	/**
+	 * Radii of the areas that are searched before falling back to all entities of the world.
+	 * The server looks up entities of an area by chunk, so this is much cheaper than
+	 * going through the whole world when the nearest entity is close, which it usually is.
+	 */
+	private static final double[] SEARCH_RADII = {16, 64};
+
 	@SuppressWarnings("NotNullFieldNotInitialized")
 	private EntityData<?>[] entityDatas;
 
@@ -109,12 +118,28 @@ public class ExprNearestEntity extends SimpleExpression<Entity> {
 
 	@Nullable
 	private Entity getNearestEntity(EntityData<?> entityData, Location relativePoint, @Nullable Entity excludedEntity) {
+		World world = relativePoint.getWorld();
+		for (double radius : SEARCH_RADII) {
+			// Only entities within the radius count, as ones outside of the searched box might be further than that
+			Entity nearestEntity = getNearestEntity(entityData, relativePoint, excludedEntity,
+				world.getNearbyEntities(relativePoint, radius, radius, radius), radius * radius);
+			if (nearestEntity != null)
+				return nearestEntity;
+		}
+		return getNearestEntity(entityData, relativePoint, excludedEntity,
+			world.getEntitiesByClass(entityData.getType()), Double.POSITIVE_INFINITY);
+	}
+
+	@Nullable
+	private Entity getNearestEntity(EntityData<?> entityData, Location relativePoint, @Nullable Entity excludedEntity,
+									Collection<? extends Entity> entities, double maxDistanceSquared) {
 		Entity nearestEntity = null;
-		double nearestDistance = -1;
-		for (Entity entity : relativePoint.getWorld().getEntitiesByClass(entityData.getType())) {
+		double nearestDistance = maxDistanceSquared;
+		Location location = new Location(null, 0, 0, 0); // Reused to not create a location for every entity
+		for (Entity entity : entities) {
 			if (entity != excludedEntity && entityData.isInstance(entity)) {
-				double distance = entity.getLocation().distance(relativePoint);
-				if (nearestEntity == null || distance < nearestDistance) {
+				double distance = entity.getLocation(location).distanceSquared(relativePoint);
+				if (nearestEntity == null ? distance <= nearestDistance : distance < nearestDistance) {
 					nearestDistance = distance;
 					nearestEntity = entity;
 				}
@@ -30,6 +30,7 @@ import ch.njol.skript.registrations.EventValues;
 import ch.njol.skript.util.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
@@ -42,8 +43,12 @@ import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EvtRegionBorder extends SkriptEvent {
@@ -54,7 +59,9 @@ public class EvtRegionBorder extends SkriptEvent {
 				"region (:enter[ing]|leav(e|ing)|exit[ing])")
 				.description(
 					"Called when a player enters or leaves a <a href='./classes.html#region'>region</a>.",
-					"This event requires a supported regions plugin to be installed."
+					"This event requires a supported regions plugin to be installed.",
+					"The regions a player is in are remembered from their last move, so if a region is created, removed or redefined " +
+						"while a player stands in it, the player enters or leaves it the next time they move to another block."
 				).examples(
 					"on region exit:",
 					"\tmessage \"Leaving %region%.\""
@@ -89,11 +96,16 @@ public class EvtRegionBorder extends SkriptEvent {
 			Location to = moveEvent.getTo();
 			Location from = moveEvent.getFrom();
 
-			if (to.equals(from))
+			// Regions consist of whole blocks, so nothing can change when moving within a block
+			if (to.getBlockX() == from.getBlockX() && to.getBlockY() == from.getBlockY() && to.getBlockZ() == from.getBlockZ()
+					&& Objects.equals(to.getWorld(), from.getWorld()))
 				return;
 
-			Set<? extends Region> oldRegions = RegionsPlugin.getRegionsAt(from);
+			Player player = moveEvent.getPlayer();
+			CachedRegions cached = CACHED_REGIONS.get(player);
+			Set<? extends Region> oldRegions = cached != null && cached.isAt(from) ? cached.regions : RegionsPlugin.getRegionsAt(from);
 			Set<? extends Region> newRegions = RegionsPlugin.getRegionsAt(to);
+			CACHED_REGIONS.put(player, new CachedRegions(to, newRegions));
 
 			for (Region oldRegion : oldRegions) {
 				if (!newRegions.contains(oldRegion))
@@ -107,11 +119,52 @@ public class EvtRegionBorder extends SkriptEvent {
 		}
 	};
 
+	/**
+	 * The regions at the block each player moved to last, which is where they'll move from next.
+	 * This saves looking up the regions of that block again from all regions plugins.
+	 * Only accessed from the main thread, as that's where players move.
+	 */
+	private static final Map<Player, CachedRegions> CACHED_REGIONS = new WeakHashMap<>();
+
+	private static final class CachedRegions {
+
+		@Nullable
+		private final World world;
+		private final int x, y, z;
+		private final Set<? extends Region> regions;
+
+		private CachedRegions(Location location, Set<? extends Region> regions) {
+			world = location.getWorld();
+			x = location.getBlockX();
+			y = location.getBlockY();
+			z = location.getBlockZ();
+			this.regions = regions;
+		}
+
+		private boolean isAt(Location location) {
+			return location.getBlockX() == x && location.getBlockY() == y && location.getBlockZ() == z
+				&& Objects.equals(location.getWorld(), world);
+		}
+
+	}
+
 	private static void callEvent(Region region, PlayerMoveEvent event, boolean enter) {
 		RegionBorderEvent regionEvent = new RegionBorderEvent(region, event.getPlayer(), enter);
 		regionEvent.setCancelled(event.isCancelled());
 		synchronized (TRIGGERS) {
-			for (Trigger trigger : TRIGGERS) {
+			List<Trigger> regionTriggers = REGION_TRIGGERS.get(region);
+			if (regionTriggers == null)
+				regionTriggers = Collections.emptyList();
+			// Both lists are in registration order, merge them to run all triggers in that order
+			int i = 0, j = 0;
+			while (i < TRIGGERS.size() || j < regionTriggers.size()) {
+				Trigger trigger;
+				if (j == regionTriggers.size()
+						|| i < TRIGGERS.size() && getSequence(TRIGGERS.get(i)) < getSequence(regionTriggers.get(j))) {
+					trigger = TRIGGERS.get(i++);
+				} else {
+					trigger = regionTriggers.get(j++);
+				}
 				if (((EvtRegionBorder) trigger.getEvent()).applies(regionEvent))
 					trigger.execute(regionEvent);
 			}
@@ -119,9 +172,35 @@ public class EvtRegionBorder extends SkriptEvent {
 		event.setCancelled(regionEvent.isCancelled());
 	}
 
+	private static long getSequence(Trigger trigger) {
+		return ((EvtRegionBorder) trigger.getEvent()).sequence;
+	}
+
+	/**
+	 * Triggers for any region, or for regions that can't be indexed in {@link #REGION_TRIGGERS}.
+	 * This is also the lock for {@link #REGION_TRIGGERS}.
+	 */
 	private static final List<Trigger> TRIGGERS = Collections.synchronizedList(new ArrayList<>());
 
+	/**
+	 * Triggers for specific regions by the regions they're for,
+	 * so that crossing a region's border doesn't check the triggers of all other regions.
+	 */
+	private static final Map<Region, List<Trigger>> REGION_TRIGGERS = new HashMap<>();
+
 	private static final AtomicBoolean REGISTERED_EXECUTORS = new AtomicBoolean();
+
+	/**
+	 * The {@link #sequence} of the trigger registered last.
+	 * Only accessed while holding the lock of {@link #TRIGGERS}.
+	 */
+	private static long lastSequence;
+
+	/**
+	 * When this event's trigger was registered relative to the others,
+	 * so that triggers in {@link #TRIGGERS} and {@link #REGION_TRIGGERS} are run in registration order.
+	 */
+	private long sequence;
 	
 	private boolean enter;
 	
@@ -138,7 +217,16 @@ public class EvtRegionBorder extends SkriptEvent {
 
 	@Override
 	public boolean postLoad() {
-		TRIGGERS.add(trigger);
+		synchronized (TRIGGERS) {
+			sequence = ++lastSequence;
+			Region[] regions = getIndexedRegions();
+			if (regions == null) {
+				TRIGGERS.add(trigger);
+			} else {
+				for (Region region : regions)
+					REGION_TRIGGERS.computeIfAbsent(region, r -> new ArrayList<>()).add(trigger);
+			}
+		}
 		if (REGISTERED_EXECUTORS.compareAndSet(false, true)) {
 			EventPriority priority = SkriptConfig.defaultEventPriority.value();
 			Bukkit.getPluginManager().registerEvent(PlayerMoveEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
@@ -150,7 +238,32 @@ public class EvtRegionBorder extends SkriptEvent {
 
 	@Override
 	public void unload() {
-		TRIGGERS.remove(trigger);
+		synchronized (TRIGGERS) {
+			Region[] regions = getIndexedRegions();
+			if (regions == null) {
+				TRIGGERS.remove(trigger);
+			} else {
+				for (Region region : regions) {
+					List<Trigger> triggers = REGION_TRIGGERS.get(region);
+					if (triggers != null && triggers.remove(trigger) && triggers.isEmpty())
+						REGION_TRIGGERS.remove(region);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The regions this event can apply to, or null if it must be checked for all regions.
+	 * An 'and' list of several regions can't be indexed, as it's compared to each region on its own.
+	 */
+	private Region @Nullable [] getIndexedRegions() {
+		Literal<Region> regions = this.regions;
+		if (regions == null)
+			return null;
+		Region[] all = regions.getAll();
+		if (all.length > 1 && regions.getAnd())
+			return null;
+		return all;
 	}
 
 	@Override
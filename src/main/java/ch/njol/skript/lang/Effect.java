@@ -73,7 +73,7 @@ public abstract class Effect extends Statement {
 			}
 			log.clear();
 
-			Effect effect = (Effect) SkriptParser.parse(s, (Iterator) Skript.getEffects().iterator(), defaultError);
+			Effect effect = (Effect) SkriptParser.parse(s, (Iterator) SyntaxIndex.getCandidates(Skript.getEffects(), s).iterator(), defaultError);
 			if (effect != null) {
 				log.printLog();
 				return effect;
@@ -78,7 +78,7 @@ public abstract class EffectSection extends Section {
 		return sectionContext.modify(sectionNode, triggerItems, () ->
 			(EffectSection) SkriptParser.parse(
 				expr,
-				(Iterator) Skript.getSections().stream()
+				(Iterator) SyntaxIndex.getCandidates(Skript.getSections(), expr).stream()
 					.filter(info -> EffectSection.class.isAssignableFrom(info.c))
 					.iterator(),
 				defaultError));
@@ -22,7 +22,10 @@ import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.Skript;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.parser.ParseCache;
 import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.log.ParseLogHandler;
+import ch.njol.skript.log.SkriptLogger;
 import ch.njol.util.Kleenean;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -171,12 +174,38 @@ public abstract class Section extends TriggerSection implements SyntaxElement {
 			getParser().setHasDelayBefore(Kleenean.UNKNOWN);
 	}
 
-	@SuppressWarnings({"unchecked", "rawtypes"})
 	@Nullable
 	public static Section parse(String expr, @Nullable String defaultError, SectionNode sectionNode, List<TriggerItem> triggerItems) {
+		return parse(expr, defaultError, sectionNode, triggerItems, null);
+	}
+
+	/**
+	 * Parses a section, trying the given element first.
+	 *
+	 * @param hint The class of the element that will likely parse the section, see {@link ParseCache}.
+	 *             If it doesn't parse the section, all elements are tried as usual.
+	 */
+	@Nullable
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static Section parse(String expr, @Nullable String defaultError, SectionNode sectionNode, List<TriggerItem> triggerItems, @Nullable Class<?> hint) {
 		SectionContext sectionContext = ParserInstance.get().getData(SectionContext.class);
-		return sectionContext.modify(sectionNode, triggerItems,
-			() -> (Section) SkriptParser.parse(expr, (Iterator) Skript.getSections().iterator(), defaultError));
+		return sectionContext.modify(sectionNode, triggerItems, () -> {
+			if (hint != null) {
+				ParseLogHandler log = SkriptLogger.startParseLogHandler();
+				try {
+					Section section = (Section) SkriptParser.parse(expr, (Iterator) ParseCache.getInfos(Skript.getSections(), hint), null);
+					if (section != null) {
+						log.printLog();
+						return section;
+					}
+					log.clear();
+					log.clearError();
+				} finally {
+					log.stop();
+				}
+			}
+			return (Section) SkriptParser.parse(expr, (Iterator) SyntaxIndex.getCandidates(Skript.getSections(), expr).iterator(), defaultError);
+		});
 	}
 
 	static {
@@ -173,6 +173,17 @@ public abstract class SkriptEvent extends Structure {
 		super.postUnload();
 	}
 
+	/**
+	 * Skript's own events only parse their own code while loading, so they are loaded in parallel.
+	 * Events of addons are not, as Skript can't know whether their {@link #load()} modifies shared state.
+	 * Addons may override this to return true if their event only parses its own code too.
+	 */
+	@Override
+	public boolean isParallelLoadable() {
+		// Addons registering Skript's own event classes, e.g. SimpleEvent, don't add any code to load()
+		return getClass().getClassLoader() == SkriptEvent.class.getClassLoader();
+	}
+
 	@Override
 	public Priority getPriority() {
 		return PRIORITY;
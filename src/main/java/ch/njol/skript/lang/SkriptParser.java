@@ -30,6 +30,8 @@ import ch.njol.skript.expressions.ExprParse;
 import ch.njol.skript.lang.function.ExprFunctionCall;
 import ch.njol.skript.lang.function.FunctionReference;
 import ch.njol.skript.lang.function.Functions;
+import ch.njol.skript.lang.parser.ParseMemo;
+import ch.njol.skript.lang.parser.ParseStatistics;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.lang.util.SimpleLiteral;
 import ch.njol.skript.localization.Language;
@@ -56,7 +58,6 @@ import org.skriptlang.skript.lang.script.ScriptWarning;
 
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -213,9 +214,15 @@ public class SkriptParser {
 		}
 	}
 
+	static {
+		ParserInstance.registerData(ParseStatistics.class, ParseStatistics::new);
+		ParserInstance.registerData(ParseMemo.class, ParseMemo::new);
+	}
+
 	@Nullable
 	private <T extends SyntaxElement> T parse(Iterator<? extends SyntaxElementInfo<? extends T>> source) {
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		ParseStatistics statistics = getParser().getData(ParseStatistics.class);
 		try {
 			while (source.hasNext()) {
 				SyntaxElementInfo<? extends T> info = source.next();
@@ -227,6 +234,7 @@ public class SkriptParser {
 						ParseResult res;
 						try {
 							res = parse_i(pattern, 0, 0);
+							statistics.tried(res != null);
 						} catch (MalformedPatternException e) {
 							String message = "pattern compiling exception, element class: " + info.c.getName();
 							try {
@@ -350,7 +358,7 @@ public class SkriptParser {
 				if (expr.startsWith("\"") && expr.length() != 1 && nextQuote(expr, 1) == expr.length() - 1) {
 					e = VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
 				} else {
-					e = (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(types), null);
+					e = (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(expr, types), null);
 				}
 				if (e != null) { // Expression/VariableString parsing success
 					for (final Class<? extends T> t : types) {
@@ -528,7 +536,7 @@ public class SkriptParser {
 				if (expr.startsWith("\"") && expr.length() != 1 && nextQuote(expr, 1) == expr.length() - 1) {
 					e = VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
 				} else {
-					e = (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(types), null);
+					e = (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(expr, types), null);
 				}
 				if (e != null) { // Expression/VariableString parsing success
 					Class<?> returnType = e.getReturnType(); // Sometimes getReturnType does non-trivial costly operations
@@ -753,7 +761,27 @@ public class SkriptParser {
 	public final Expression<?> parseExpression(final ExprInfo vi) {
 		if (expr.length() == 0)
 			return null;
-		
+
+		ParseMemo memo = getParser().getData(ParseMemo.class);
+		if (memo.hasFailed(expr, vi, flags, context))
+			return null;
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			Expression<?> expression = parseExpression_i(vi);
+			if (expression != null) {
+				log.printLog();
+			} else {
+				memo.failed(expr, vi, flags, context, log.getError());
+				log.printError();
+			}
+			return expression;
+		} finally {
+			log.stop();
+		}
+	}
+
+	@Nullable
+	private Expression<?> parseExpression_i(final ExprInfo vi) {
 		final boolean isObject = vi.classes.length == 1 && vi.classes[0].getC() == Object.class;
 		final ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
@@ -1221,10 +1249,8 @@ public class SkriptParser {
 		if (startIndex >= haystackLength)
 			return -1;
 
-		if (!caseSensitive) {
-			haystack = haystack.toLowerCase(Locale.ENGLISH);
-			needle = needle.toLowerCase(Locale.ENGLISH);
-		}
+		boolean ignoreCase = !caseSensitive;
+		int needleLength = needle.length();
 
 		char firstChar = needle.charAt(0);
 		boolean startsWithSpecialChar = firstChar == '"' || firstChar == '{' || firstChar == '(';
@@ -1234,7 +1260,7 @@ public class SkriptParser {
 			char c = haystack.charAt(startIndex);
 
 			if (startsWithSpecialChar) { // Early check before special character handling
-				if (haystack.startsWith(needle, startIndex))
+				if (haystack.regionMatches(ignoreCase, startIndex, needle, 0, needleLength))
 					return startIndex;
 			}
 
@@ -1256,7 +1282,7 @@ public class SkriptParser {
 					break;
 			}
 
-			if (haystack.startsWith(needle, startIndex))
+			if (haystack.regionMatches(ignoreCase, startIndex, needle, 0, needleLength))
 				return startIndex;
 
 			startIndex++;
@@ -1267,11 +1293,19 @@ public class SkriptParser {
 
 	private static final Map<String, SkriptPattern> patterns = new ConcurrentHashMap<>();
 
+	/**
+	 * @return The compiled form of the given pattern, compiling and caching it if this is the first time it is used.
+	 * @throws MalformedPatternException If the pattern is malformed.
+	 */
+	static SkriptPattern getCompiledPattern(String pattern) throws MalformedPatternException {
+		return patterns.computeIfAbsent(pattern, PatternCompiler::compile);
+	}
+
 	@Nullable
 	private ParseResult parse_i(String pattern, int i, int j) {
 		if (i != 0 || j != 0)
 			throw new IllegalArgumentException();
-		SkriptPattern skriptPattern = patterns.computeIfAbsent(pattern, PatternCompiler::compile);
+		SkriptPattern skriptPattern = getCompiledPattern(pattern);
 		ch.njol.skript.patterns.MatchResult matchResult = skriptPattern.match(expr, flags, context);
 		if (matchResult == null)
 			return null;
@@ -1390,7 +1424,8 @@ public class SkriptParser {
 		public int time = 0;
 	}
 	
-	private static final Map<String,ExprInfo> exprInfoCache = new HashMap<>();
+	// accessed by all loader threads when scripts are loaded in parallel
+	private static final Map<String,ExprInfo> exprInfoCache = new ConcurrentHashMap<>();
 	
 	private static ExprInfo getExprInfo(String s) throws IllegalArgumentException, SkriptAPIException {
 		ExprInfo r = exprInfoCache.get(s);
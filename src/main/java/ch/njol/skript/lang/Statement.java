@@ -24,6 +24,7 @@ import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.lang.function.EffFunctionCall;
+import ch.njol.skript.lang.parser.ParseCache;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 
@@ -35,9 +36,21 @@ import ch.njol.skript.log.SkriptLogger;
  */
 public abstract class Statement extends TriggerItem implements SyntaxElement {
 
-	@SuppressWarnings({"rawtypes", "unchecked", "null"})
 	@Nullable
 	public static Statement parse(String s, String defaultError) {
+		return parse(s, null, defaultError);
+	}
+
+	/**
+	 * Parses a condition or effect, trying the given element before the other registered statements.
+	 *
+	 * @param hint The class of the element that will likely parse the statement, see {@link ParseCache}.
+	 *             It is only tried after function calls and effect sections.
+	 *             If it doesn't parse the statement, all elements are tried as usual.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked", "null"})
+	@Nullable
+	public static Statement parse(String s, @Nullable Class<?> hint, String defaultError) {
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
 			EffFunctionCall f = EffFunctionCall.parse(s);
@@ -57,7 +70,19 @@ public abstract class Statement extends TriggerItem implements SyntaxElement {
 			}
 			log.clear();
 
-			Statement statement = (Statement) SkriptParser.parse(s, (Iterator) Skript.getStatements().iterator(), defaultError);
+			// Function calls and effect sections depend on other scripts, which the hint doesn't account for,
+			// so the hint only replaces the search through the registered statements
+			if (hint != null) {
+				Statement statement = (Statement) SkriptParser.parse(s, (Iterator) ParseCache.getInfos(Skript.getStatements(), hint), null);
+				if (statement != null) {
+					log.printLog();
+					return statement;
+				}
+				log.clear();
+				log.clearError();
+			}
+
+			Statement statement = (Statement) SkriptParser.parse(s, (Iterator) SyntaxIndex.getCandidates(Skript.getStatements(), s).iterator(), defaultError);
 			if (statement != null) {
 				log.printLog();
 				return statement;
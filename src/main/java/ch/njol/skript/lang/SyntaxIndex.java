@@ -0,0 +1,213 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.lang.parser.ParseStatistics;
+import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.patterns.MalformedPatternException;
+import ch.njol.skript.patterns.SkriptPattern;
+import ch.njol.skript.patterns.SkriptPattern.FirstWords;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of registered syntax elements by the first words a line matching any of their patterns can start with,
+ * see {@link SkriptPattern#getFirstWord(String)}.
+ * {@link SkriptParser} only walks the candidates for the first word of a line instead of every registered element.
+ * The candidates are in registration order, so precedence is unaffected.
+ * <p>
+ * Elements with a pattern that may start with anything, e.g. with a type, are candidates for every line.
+ * <p>
+ * The indices are built once registrations have stopped. Until then, all elements are candidates.
+ */
+public final class SyntaxIndex<E extends SyntaxElementInfo<?>> {
+
+	/**
+	 * The maximum amount of first words whose candidates are cached by each index.
+	 */
+	private static final int MAX_CACHED_WORDS = 4096;
+
+	/**
+	 * The indices of the collections of syntax elements returned by {@link Skript}, by collection.
+	 */
+	private static volatile Map<Collection<?>, SyntaxIndex<?>> indices = Collections.emptyMap();
+
+	@Nullable
+	private static volatile SyntaxIndex<ExpressionInfo<?, ?>> expressionIndex;
+
+	/**
+	 * Compiles the patterns of all registered syntax elements and indexes them.
+	 */
+	public static void build() {
+		Map<Collection<?>, SyntaxIndex<?>> indices = new IdentityHashMap<>();
+		indices.put(Skript.getStatements(), new SyntaxIndex<>(Skript.getStatements()));
+		indices.put(Skript.getConditions(), new SyntaxIndex<>(Skript.getConditions()));
+		indices.put(Skript.getEffects(), new SyntaxIndex<>(Skript.getEffects()));
+		indices.put(Skript.getSections(), new SyntaxIndex<>(Skript.getSections()));
+		indices.put(Skript.getStructures(), new SyntaxIndex<>(Skript.getStructures()));
+		SyntaxIndex.indices = indices;
+
+		List<ExpressionInfo<?, ?>> expressions = new ArrayList<>();
+		Skript.getExpressions().forEachRemaining(expressions::add);
+		expressionIndex = new SyntaxIndex<>(expressions);
+	}
+
+	/**
+	 * @param elements One of the collections of syntax elements returned by {@link Skript}, e.g. {@link Skript#getStatements()}
+	 * @param expr The line to parse
+	 * @return The elements of the given collection that could parse the given line, in registration order.
+	 * This is only a quick check: not every returned element will match the line.
+	 * If the collection is not indexed, it is returned as is.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E extends SyntaxElementInfo<?>> Collection<E> getCandidates(Collection<E> elements, String expr) {
+		SyntaxIndex<E> index = (SyntaxIndex<E>) indices.get(elements);
+		// elements registered after the index was built would be missing
+		if (index == null || index.elements.size() != elements.size())
+			return elements;
+		return index.getCandidates(expr);
+	}
+
+	/**
+	 * @param expr The text to parse
+	 * @return The expressions that could parse the given text, in registration order, see {@link #getCandidates(Collection, String)}.
+	 */
+	public static Iterator<ExpressionInfo<?, ?>> getExpressionCandidates(String expr) {
+		SyntaxIndex<ExpressionInfo<?, ?>> index = expressionIndex;
+		if (index == null)
+			return Skript.getExpressions();
+		return index.getCandidates(expr).iterator();
+	}
+
+	private final List<E> elements;
+
+	/**
+	 * The elements that may parse lines starting with anything.
+	 */
+	private final BitSet unindexed = new BitSet();
+
+	/**
+	 * The elements that may parse lines starting with each word.
+	 */
+	private final Map<String, BitSet> words = new HashMap<>();
+
+	/**
+	 * The elements that may parse lines whose first word starts with each prefix.
+	 */
+	private final Map<String, BitSet> prefixes = new HashMap<>();
+
+	private final Map<String, Candidates<E>> candidates = new ConcurrentHashMap<>();
+
+	private int patterns;
+
+	private static final class Candidates<E> {
+
+		private final List<E> elements;
+
+		/**
+		 * The amount of patterns of the elements that aren't candidates.
+		 */
+		private final int skippedPatterns;
+
+		private Candidates(List<E> elements, int skippedPatterns) {
+			this.elements = elements;
+			this.skippedPatterns = skippedPatterns;
+		}
+
+	}
+
+	private SyntaxIndex(Collection<E> elements) {
+		this.elements = new ArrayList<>(elements);
+		for (int i = 0; i < this.elements.size(); i++) {
+			E info = this.elements.get(i);
+			patterns += info.patterns.length;
+			List<FirstWords> firstWords = new ArrayList<>(info.patterns.length);
+			for (String pattern : info.patterns) {
+				FirstWords patternFirstWords;
+				try {
+					patternFirstWords = SkriptParser.getCompiledPattern(pattern).getFirstWords();
+				} catch (MalformedPatternException e) { // reported once something is actually parsed with it
+					patternFirstWords = null;
+				}
+				if (patternFirstWords == null) {
+					firstWords = null;
+					break;
+				}
+				firstWords.add(patternFirstWords);
+			}
+
+			if (firstWords == null) {
+				unindexed.set(i);
+				continue;
+			}
+			for (FirstWords patternFirstWords : firstWords) {
+				for (String word : patternFirstWords.getWords())
+					words.computeIfAbsent(word, w -> new BitSet()).set(i);
+				for (String prefix : patternFirstWords.getPrefixes())
+					prefixes.computeIfAbsent(prefix, p -> new BitSet()).set(i);
+			}
+		}
+	}
+
+	private Collection<E> getCandidates(String expr) {
+		String word = SkriptPattern.getFirstWord(expr);
+		Candidates<E> candidates = this.candidates.get(word);
+		if (candidates == null) {
+			candidates = computeCandidates(word);
+			if (this.candidates.size() < MAX_CACHED_WORDS)
+				this.candidates.put(word, candidates);
+		}
+		ParserInstance parser = ParserInstance.get();
+		parser.getData(ParseStatistics.class).skipped(candidates.skippedPatterns);
+		return candidates.elements;
+	}
+
+	private Candidates<E> computeCandidates(String word) {
+		BitSet candidates = (BitSet) unindexed.clone();
+		BitSet exact = words.get(word);
+		if (exact != null)
+			candidates.or(exact);
+		for (int i = 1; i <= word.length(); i++) {
+			BitSet prefixed = prefixes.get(word.substring(0, i));
+			if (prefixed != null)
+				candidates.or(prefixed);
+		}
+
+		List<E> elements = new ArrayList<>(candidates.cardinality());
+		int candidatePatterns = 0;
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			E info = this.elements.get(i);
+			elements.add(info);
+			candidatePatterns += info.patterns.length;
+		}
+		return new Candidates<>(Collections.unmodifiableList(elements), patterns - candidatePatterns);
+	}
+
+}
@@ -26,6 +26,7 @@ import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.timings.SkriptProfiler;
 import ch.njol.util.StringUtils;
 
 /**
@@ -42,6 +43,7 @@ public abstract class TriggerItem implements Debuggable {
 	protected TriggerSection parent = null;
 	@Nullable
 	private TriggerItem next = null;
+	private int line = -1; // -1 is default: it means there is no line number available
 	
 	protected TriggerItem() {}
 	
@@ -85,9 +87,27 @@ public abstract class TriggerItem implements Debuggable {
 	public static boolean walk(final TriggerItem start, final Event e) {
 		assert start != null && e != null;
 		TriggerItem i = start;
+		SkriptProfiler.Frame triggerFrame = null;
 		try {
-			while (i != null)
-				i = i.walk(e);
+			if (SkriptProfiler.isEnabled()) {
+				// a walk not starting at a trigger resumes it, e.g. after a delay
+				triggerFrame = SkriptProfiler.enter(start.getTrigger(), start instanceof Trigger);
+				while (i != null) {
+					if (i instanceof Trigger) {
+						i = i.walk(e);
+						continue;
+					}
+					SkriptProfiler.Frame frame = SkriptProfiler.enter(i);
+					try {
+						i = i.walk(e);
+					} finally {
+						SkriptProfiler.exit(frame);
+					}
+				}
+			} else {
+				while (i != null)
+					i = i.walk(e);
+			}
 			
 			return true;
 		} catch (final StackOverflowError err) {
@@ -111,6 +131,8 @@ public abstract class TriggerItem implements Debuggable {
 			// not all Throwables are Exceptions, but we usually don't want to catch them (without rethrowing)
 			Skript.markErrored();
 			throw throwable;
+		} finally {
+			SkriptProfiler.exit(triggerFrame);
 		}
 		return false;
 	}
@@ -179,4 +201,20 @@ public abstract class TriggerItem implements Debuggable {
 		return next;
 	}
 	
+	/**
+	 * Sets the line number this item was parsed from.
+	 * Only used for debugging and profiling.
+	 * @param line Line number
+	 */
+	public void setLineNumber(int line) {
+		this.line = line;
+	}
+	
+	/**
+	 * @return The line number this item was parsed from, or -1 if unknown. This should ONLY be used for debugging!
+	 */
+	public int getLineNumber() {
+		return line;
+	}
+	
 }
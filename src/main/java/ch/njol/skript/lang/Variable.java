@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.World;
@@ -38,6 +37,7 @@ import org.skriptlang.skript.lang.comparator.Relation;
 import org.skriptlang.skript.lang.converter.Converters;
 import org.skriptlang.skript.lang.script.Script;
 import org.skriptlang.skript.lang.script.ScriptWarning;
+import org.skriptlang.skript.lang.structure.Structure;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
@@ -54,6 +54,8 @@ import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.structures.StructVariables.DefaultVariables;
 import ch.njol.skript.util.StringMode;
 import ch.njol.skript.util.Utils;
+import ch.njol.skript.variables.ListVariableNode;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.TypeHints;
 import ch.njol.skript.variables.Variables;
 import ch.njol.util.Checker;
@@ -90,6 +92,19 @@ public class Variable<T> implements Expression<T> {
 	@Nullable
 	private final Variable<?> source;
 
+	/**
+	 * The slots of the structure this local variable was parsed in, see {@link LocalVariableSlots},
+	 * or {@code null} if this variable doesn't have a {@link #slot}.
+	 */
+	@Nullable
+	private final LocalVariableSlots slots;
+
+	/**
+	 * The slot of this local variable, or {@code -1} if this variable doesn't have one
+	 * because it's global, a list, or has a dynamic name.
+	 */
+	private final int slot;
+
 	@SuppressWarnings("unchecked")
 	private Variable(VariableString name, Class<? extends T>[] types, boolean local, boolean list, @Nullable Variable<?> source) {
 		assert name != null;
@@ -110,6 +125,18 @@ public class Variable<T> implements Expression<T> {
 		this.superType = (Class<T>) Utils.getSuperType(types);
 
 		this.source = source;
+
+		// Resolve the slot of local variables with constant names
+		Structure structure = parser.isActive() ? parser.getCurrentStructure() : null;
+		int slot = -1;
+		if (local && !list && name.isSimple() && structure != null) {
+			LocalVariableSlots slots = LocalVariableSlots.get(structure);
+			slot = slots.getSlot(name.toString(null));
+			this.slots = slot == -1 ? null : slots;
+		} else {
+			this.slots = null;
+		}
+		this.slot = slot;
 	}
 
 	/**
@@ -312,10 +339,16 @@ public class Variable<T> implements Expression<T> {
 		try {
 			String name = this.name.toString(event);
 
-			// prevents e.g. {%expr%} where "%expr%" ends with "::*" from returning a Map
-			if (name.endsWith(Variable.SEPARATOR + "*") != list)
-				return null;
-			Object value = !list ? convertIfOldPlayer(name, event, Variables.getVariable(name, event, local)) : Variables.getVariable(name, event, local);
+			Object value;
+			LocalVariableSlots slots = this.slots;
+			if (slots != null) {
+				value = convertIfOldPlayer(name, event, Variables.getLocalVariable(slots, slot, name, event));
+			} else {
+				// prevents e.g. {%expr%} where "%expr%" ends with "::*" from returning a Map
+				if (name.endsWith(Variable.SEPARATOR + "*") != list)
+					return null;
+				value = !list ? convertIfOldPlayer(name, event, Variables.getVariable(name, event, local)) : Variables.getVariable(name, event, local);
+			}
 			if (value != null)
 				return value;
 
@@ -352,8 +385,10 @@ public class Variable<T> implements Expression<T> {
 					o = ((Map<String, ?>) v.getValue()).get(null);
 				else
 					o = v.getValue();
+				if (o instanceof Player) // Only build the full name when it's needed
+					o = convertIfOldPlayer(name + v.getKey(), event, o);
 				if (o != null)
-					l.add(convertIfOldPlayer(name + v.getKey(), event, o));
+					l.add(o);
 			}
 		}
 		return l.toArray();
@@ -377,36 +412,47 @@ public class Variable<T> implements Expression<T> {
 		return object;
 	}
 
+	/**
+	 * Gets a snapshot of the indices and values of this list variable,
+	 * see {@link Variables#getListEntries(String, Event, boolean)}.
+	 */
+	@Nullable
+	public List<Pair<String, Object>> getListEntries(Event e) {
+		if (!list)
+			throw new SkriptAPIException("Getting the entries of a non-list variable");
+		return Variables.getListEntries(name.toString(e), e, local);
+	}
+
+	/**
+	 * Iterates the indices and values of this list variable. The values are taken from a snapshot of the list
+	 * made when this is called, so changing the list while iterating it doesn't affect the iteration.
+	 */
 	public Iterator<Pair<String, Object>> variablesIterator(Event e) {
 		if (!list)
 			throw new SkriptAPIException("Looping a non-list variable");
 		String name = StringUtils.substring(this.name.toString(e), 0, -1);
-		Object val = Variables.getVariable(name + "*", e, local);
-		if (val == null)
+		List<Pair<String, Object>> entries = Variables.getListEntries(name + "*", e, local);
+		if (entries == null)
 			return new EmptyIterator<>();
-		assert val instanceof TreeMap;
-		// temporary list to prevent CMEs
-		@SuppressWarnings("unchecked")
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) val).keySet()).iterator();
+		Iterator<Pair<String, Object>> iterator = entries.iterator();
 		return new Iterator<Pair<String, Object>>() {
 			@Nullable
-			private String key;
-			@Nullable
-			private Object next = null;
+			private Pair<String, Object> next = null;
 
 			@Override
 			public boolean hasNext() {
 				if (next != null)
 					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
-					if (key != null) {
-						next = convertIfOldPlayer(name + key, e, Variables.getVariable(name + key, e, local));
-						if (next != null && !(next instanceof TreeMap))
-							return true;
+				while (iterator.hasNext()) {
+					Pair<String, Object> entry = iterator.next();
+					Object value = entry.getValue();
+					if (value instanceof Player) // Only build the full name when it's needed
+						entry.setValue(convertIfOldPlayer(name + entry.getKey(), e, value));
+					if (entry.getValue() != null) {
+						next = entry;
+						return true;
 					}
 				}
-				next = null;
 				return false;
 			}
 
@@ -414,7 +460,8 @@ public class Variable<T> implements Expression<T> {
 			public Pair<String, Object> next() {
 				if (!hasNext())
 					throw new NoSuchElementException();
-				Pair<String, Object> n = new Pair<>(key, next);
+				Pair<String, Object> n = next;
+				assert n != null;
 				next = null;
 				return n;
 			}
@@ -434,16 +481,11 @@ public class Variable<T> implements Expression<T> {
 			return item != null ? new SingleItemIterator<>(item) : null;
 		}
 		String name = StringUtils.substring(this.name.toString(e), 0, -1);
-		Object val = Variables.getVariable(name + "*", e, local);
-		if (val == null)
+		List<Pair<String, Object>> entries = Variables.getListEntries(name + "*", e, local);
+		if (entries == null)
 			return new EmptyIterator<>();
-		assert val instanceof TreeMap;
-		// temporary list to prevent CMEs
-		@SuppressWarnings("unchecked")
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) val).keySet()).iterator();
+		Iterator<Pair<String, Object>> iterator = entries.iterator();
 		return new Iterator<T>() {
-			@Nullable
-			private String key;
 			@Nullable
 			private T next = null;
 
@@ -452,16 +494,14 @@ public class Variable<T> implements Expression<T> {
 			public boolean hasNext() {
 				if (next != null)
 					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
-					if (key != null) {
-						next = Converters.convert(Variables.getVariable(name + key, e, local), types);
-						next = (T) convertIfOldPlayer(name + key, e, next);
-						if (next != null && !(next instanceof TreeMap))
-							return true;
-					}
+				while (iterator.hasNext()) {
+					Pair<String, Object> entry = iterator.next();
+					next = Converters.convert(entry.getValue(), types);
+					if (next instanceof Player) // Only build the full name when it's needed
+						next = (T) convertIfOldPlayer(name + entry.getKey(), e, next);
+					if (next != null)
+						return true;
 				}
-				next = null;
 				return false;
 			}
 
@@ -494,7 +534,11 @@ public class Variable<T> implements Expression<T> {
 	}
 
 	private void set(Event e, @Nullable Object value) {
-		Variables.setVariable("" + name.toString(e), value, e, local);
+		LocalVariableSlots slots = this.slots;
+		if (slots != null)
+			Variables.setLocalVariable(slots, slot, name.toString(e), value, e);
+		else
+			Variables.setVariable("" + name.toString(e), value, e, local);
 	}
 
 	private void setIndex(Event e, String index, @Nullable Object value) {
@@ -614,9 +658,13 @@ public class Variable<T> implements Expression<T> {
 						assert mode == ChangeMode.ADD;
 						int i = 1;
 						for (Object d : delta) {
-							if (o != null)
+							if (o instanceof ListVariableNode) {
+								// The list keeps track of its free indices
+								i = ((ListVariableNode) o).getNextFreeIndex(i);
+							} else if (o != null) {
 								while (o.containsKey("" + i))
 									i++;
+							}
 							setIndex(e, "" + i, d);
 							i++;
 						}
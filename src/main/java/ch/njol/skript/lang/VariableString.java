@@ -24,6 +24,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import net.md_5.bungee.api.chat.BaseComponent;
 import org.bukkit.ChatColor;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -47,6 +48,7 @@ import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.structures.StructVariables.DefaultVariables;
 import ch.njol.skript.util.StringMode;
 import ch.njol.skript.util.Utils;
+import ch.njol.skript.util.chat.BungeeConverter;
 import ch.njol.skript.util.chat.ChatMessages;
 import ch.njol.skript.util.chat.MessageComponent;
 import ch.njol.util.Checker;
@@ -84,6 +86,19 @@ public class VariableString implements Expression<String> {
 	 */
 	private final MessageComponent[] components;
 
+	/**
+	 * Message components of a simple string, which are only parsed once as the string is constant.
+	 * These must be copied before they're returned, as message components are mutable.
+	 */
+	@Nullable
+	private volatile List<MessageComponent> simpleMessageComponents;
+
+	/**
+	 * A simple string converted for sending it to players, see {@link #getBaseComponents(Event)}.
+	 */
+	@Nullable
+	private volatile BaseComponent[] simpleBaseComponents;
+
 	/**
 	 * Creates a new VariableString which does not contain variables.
 	 * 
@@ -416,10 +431,8 @@ public class VariableString implements Expression<String> {
 	 * @return Message components.
 	 */
 	public List<MessageComponent> getMessageComponents(Event e) {
-		if (isSimple) { // Trusted, constant string in a script
-			assert simpleUnformatted != null;
-			return ChatMessages.parse(simpleUnformatted);
-		}
+		if (isSimple) // Trusted, constant string in a script
+			return getSimpleMessageComponents();
 		
 		// Parse formating
 		Object[] string = this.stringUnformatted;
@@ -481,14 +494,47 @@ public class VariableString implements Expression<String> {
 	 * @return Message components.
 	 */
 	public List<MessageComponent> getMessageComponentsUnsafe(Event e) {
-		if (isSimple) { // Trusted, constant string in a script
-			assert simpleUnformatted != null;
-			return ChatMessages.parse(simpleUnformatted);
-		}
+		if (isSimple) // Trusted, constant string in a script
+			return getSimpleMessageComponents();
 		
 		return ChatMessages.parse(toUnformattedString(e));
 	}
 	
+	/**
+	 * Gets the message components of a simple string.
+	 * @return Copies of the components parsed when this was first called.
+	 */
+	private List<MessageComponent> getSimpleMessageComponents() {
+		assert isSimple;
+		List<MessageComponent> components = simpleMessageComponents;
+		if (components == null) {
+			assert simpleUnformatted != null;
+			simpleMessageComponents = components = ChatMessages.parse(simpleUnformatted);
+		}
+		List<MessageComponent> copy = new ArrayList<>(components.size());
+		for (MessageComponent component : components)
+			copy.add(component.copy());
+		return copy;
+	}
+
+	/**
+	 * Gets message components from this string, converted for sending them to players.
+	 * Formatting is parsed only in simple parts, like in {@link #getMessageComponents(Event)}.
+	 * <p>
+	 * Constant strings are only converted once, so the returned components may be shared
+	 * and must not be modified.
+	 * @param e Currently running event.
+	 * @return Components to send to players.
+	 */
+	public BaseComponent[] getBaseComponents(Event e) {
+		if (!isSimple)
+			return BungeeConverter.convert(getMessageComponents(e));
+		BaseComponent[] components = simpleBaseComponents;
+		if (components == null)
+			simpleBaseComponents = components = BungeeConverter.convert(getSimpleMessageComponents());
+		return components;
+	}
+	
 	/**
 	 * Parses all expressions in the string and returns it in chat JSON format.
 	 * 
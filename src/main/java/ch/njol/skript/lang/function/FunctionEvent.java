@@ -18,23 +18,55 @@
  */
 package ch.njol.skript.lang.function;
 
+import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
+import org.eclipse.jdt.annotation.Nullable;
 
+/**
+ * The event of a single call of a {@link Function}.
+ * <p>
+ * Besides being the event that the function's local variables are bound to,
+ * it holds the state of the call, so a function can be called recursively and from multiple threads at once.
+ */
 public final class FunctionEvent<T> extends Event {
 	
 	// Bukkit stuff
 	private final static HandlerList handlers = new HandlerList();
 	
 	private final Function<? extends T> function;
+
+	private boolean returnValueSet = false;
+	@Nullable
+	private T[] returnValue = null;
 	
 	public FunctionEvent(Function<? extends T> function) {
+		super(!Bukkit.isPrimaryThread());
 		this.function = function;
 	}
 	
 	public Function<? extends T> getFunction() {
 		return function;
 	}
+
+	/**
+	 * Sets the value returned by this call of the function.
+	 *
+	 * @param value the return value.
+	 */
+	void setReturnValue(@Nullable T[] value) {
+		assert !returnValueSet;
+		returnValueSet = true;
+		returnValue = value;
+	}
+
+	/**
+	 * @return the value returned by this call of the function, or {@code null} if it didn't return anything.
+	 */
+	@Nullable
+	public T[] getReturnValue() {
+		return returnValue;
+	}
 	
 	@Override
 	public HandlerList getHandlers() {
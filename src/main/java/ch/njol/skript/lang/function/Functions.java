@@ -35,6 +35,7 @@ import org.skriptlang.skript.lang.script.Script;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -53,9 +54,36 @@ public abstract class Functions {
 
 	private Functions() {}
 
+	/**
+	 * @deprecated Unreliable when scripts are loaded in parallel, as every loading thread writes to this field,
+	 *  so it may hold a function that is being loaded by another thread. Use {@link #getCurrentFunction()} instead.
+	 */
+	@Deprecated
 	@Nullable
 	public static ScriptFunction<?> currentFunction = null;
 
+	/**
+	 * The function whose body is being parsed on each thread.
+	 */
+	private static final ThreadLocal<ScriptFunction<?>> CURRENT_FUNCTION = new ThreadLocal<>();
+
+	/**
+	 * @return The function whose body is currently being parsed on this thread, or null if no function is being parsed.
+	 */
+	@Nullable
+	public static ScriptFunction<?> getCurrentFunction() {
+		return CURRENT_FUNCTION.get();
+	}
+
+	static void setCurrentFunction(@Nullable ScriptFunction<?> function) {
+		if (function == null) {
+			CURRENT_FUNCTION.remove();
+		} else {
+			CURRENT_FUNCTION.set(function);
+		}
+		currentFunction = function;
+	}
+
 	/**
 	 * Function namespaces.
 	 */
@@ -361,7 +389,7 @@ public abstract class Functions {
 		return namespaces.get(new Namespace.Key(Namespace.Origin.SCRIPT, script));
 	}
 
-	private final static Collection<FunctionReference<?>> toValidate = new ArrayList<>();
+	private final static Collection<FunctionReference<?>> toValidate = Collections.synchronizedList(new ArrayList<>());
 
 	/**
 	 * Remember to call {@link #validateFunctions()} after calling this
@@ -382,9 +410,11 @@ public abstract class Functions {
 		// Queue references to signatures we have for revalidation
 		// Can't validate here, because other scripts might be loaded soon
 		for (Signature<?> sign : namespace.getSignatures()) {
-			for (FunctionReference<?> ref : sign.calls) {
-				if (!script.equals(ref.script)) {
-					toValidate.add(ref);
+			synchronized (sign.calls) {
+				for (FunctionReference<?> ref : sign.calls) {
+					if (!script.equals(ref.script)) {
+						toValidate.add(ref);
+					}
 				}
 			}
 		}
@@ -407,16 +437,20 @@ public abstract class Functions {
 			}
 		}
 
-		for (FunctionReference<?> ref : signature.calls) {
-			if (!signature.script.equals(ref.script))
-				toValidate.add(ref);
+		synchronized (signature.calls) {
+			for (FunctionReference<?> ref : signature.calls) {
+				if (!signature.script.equals(ref.script))
+					toValidate.add(ref);
+			}
 		}
 	}
 
 	public static void validateFunctions() {
-		for (FunctionReference<?> c : toValidate)
-			c.validateFunction(false);
-		toValidate.clear();
+		synchronized (toValidate) {
+			for (FunctionReference<?> c : toValidate)
+				c.validateFunction(false);
+			toValidate.clear();
+		}
 	}
 
 	/**
@@ -25,8 +25,11 @@ import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.effects.EffReturn;
 import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.lang.util.SimpleEvent;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.Variables;
+import org.skriptlang.skript.lang.structure.Structure;
 
 /**
  * @author Peter Güttinger
@@ -34,11 +37,30 @@ import ch.njol.skript.variables.Variables;
 public class ScriptFunction<T> extends Function<T> {
 	
 	private final Trigger trigger;
+
+	/**
+	 * The slots of the local variables of this function, or {@code null} if they don't have any.
+	 */
+	@Nullable
+	private final LocalVariableSlots slots;
+
+	/**
+	 * The slots of the parameters, {@code -1} for list parameters.
+	 */
+	private final int[] parameterSlots;
 	
 	public ScriptFunction(Signature<T> sign, Script script, SectionNode node) {
 		super(sign);
+
+		// Resolve the slots of single parameters, so they can be set without using their names
+		Parameter<?>[] parameters = sign.getParameters();
+		parameterSlots = new int[parameters.length];
+		Structure structure = ParserInstance.get().getCurrentStructure();
+		slots = structure == null ? null : LocalVariableSlots.get(structure);
+		for (int i = 0; i < parameters.length; i++)
+			parameterSlots[i] = slots != null && parameters[i].single ? slots.getSlot(parameters[i].name) : -1;
 		
-		Functions.currentFunction = this;
+		Functions.setCurrentFunction(this);
 		try {
 			trigger = new Trigger(
 				script,
@@ -48,34 +70,38 @@ public class ScriptFunction<T> extends Function<T> {
 			);
 			trigger.setLineNumber(node.getLine());
 		} finally {
-			Functions.currentFunction = null;
+			Functions.setCurrentFunction(null);
 		}
 	}
 	
-	private boolean returnValueSet = false;
-	@Nullable
-	private T[] returnValue = null;
-	
 	/**
+	 * Sets the value returned by the given call of this function.
 	 * Should only be called by {@link EffReturn}.
+	 *
+	 * @param event the event of the call.
+	 * @param value the return value.
 	 */
-	public final void setReturnValue(final @Nullable T[] value) {
-		assert !returnValueSet;
-		returnValueSet = true;
-		returnValue = value;
+	public final void setReturnValue(FunctionEvent<T> event, @Nullable T[] value) {
+		assert event.getFunction() == this;
+		event.setReturnValue(value);
 	}
 	
 	// REMIND track possible types of local variables (including undefined variables) (consider functions, commands, and EffChange) - maybe make a general interface for this purpose
 	// REM: use patterns, e.g. {_a%b%} is like "a.*", and thus subsequent {_axyz} may be set and of that type.
 	@Override
 	@Nullable
+	@SuppressWarnings("unchecked")
 	public T[] execute(final FunctionEvent<?> e, final Object[][] params) {
 		Parameter<?>[] parameters = getSignature().getParameters();
 		for (int i = 0; i < parameters.length; i++) {
 			Parameter<?> p = parameters[i];
 			Object[] val = params[i];
 			if (p.single && val.length > 0) {
-				Variables.setVariable(p.name, val[0], e, true);
+				LocalVariableSlots slots = this.slots;
+				if (slots != null && parameterSlots[i] != -1)
+					Variables.setLocalVariable(slots, parameterSlots[i], p.name, val[0], e);
+				else
+					Variables.setVariable(p.name, val[0], e, true);
 			} else {
 				for (int j = 0; j < val.length; j++) {
 					Variables.setVariable(p.name + "::" + (j + 1), val[j], e, true);
@@ -84,13 +110,12 @@ public class ScriptFunction<T> extends Function<T> {
 		}
 		
 		trigger.execute(e);
-		return returnValue;
+		return ((FunctionEvent<T>) e).getReturnValue();
 	}
 
 	@Override
 	public boolean resetReturnValue() {
-		returnValue = null;
-		returnValueSet = false;
+		// The return value is stored in the FunctionEvent of each call
 		return true;
 	}
 
@@ -0,0 +1,307 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.bukkit.Bukkit;
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptAddon;
+import ch.njol.skript.config.Config;
+import ch.njol.skript.config.Node;
+import ch.njol.skript.lang.SyntaxElementInfo;
+
+/**
+ * Remembers which syntax element parsed each line of a script, so that the next time the same script is loaded
+ * that element can be tried first instead of searching through every registered statement or section.
+ * <p>
+ * Hints are keyed by the SHA-256 hash of the script's file and the line number, so editing a script only invalidates
+ * the hints of that script. The whole cache is discarded when the Skript version, the installed addons, the server version,
+ * Skript's config or the aliases change, as those decide which elements exist and which of them wins when several could parse a line.
+ * <p>
+ * A hint is only used if the hinted element still parses the line, otherwise the normal search is done.
+ * Function calls and effect sections are still tried first, as they depend on other scripts,
+ * but the hinted element is tried before the registered elements that come before it,
+ * so if one of those would now parse the line too, the hint wins anyway.
+ * The cache is only correct as long as the fingerprint above covers everything that changes the registered elements.
+ *
+ * @see ch.njol.skript.SkriptConfig#enableScriptCaching
+ */
+public final class ParseCache {
+
+	private ParseCache() {}
+
+	private static final int MAGIC = 0x534B5043; // "SKPC"
+	private static final int FORMAT_VERSION = 1;
+
+	@Nullable
+	private static volatile File file;
+
+	/**
+	 * Script hash -> line number -> class name of the element that parsed the line
+	 */
+	private static final Map<String, Map<Integer, String>> hints = new ConcurrentHashMap<>();
+
+	/**
+	 * Hashes of the scripts that were loaded since the cache was enabled. Only these are saved.
+	 */
+	private static final Set<String> used = ConcurrentHashMap.newKeySet();
+
+	private static final Map<Config, String> hashes = Collections.synchronizedMap(new WeakHashMap<>());
+
+	@Nullable
+	private static volatile Map<String, Class<?>> elementClasses;
+
+	/**
+	 * Enables the cache, reading the hints saved by a previous run from the given file if it exists and is still valid.
+	 */
+	public static void enable(File cacheFile) {
+		file = cacheFile;
+		hints.clear();
+		used.clear();
+		if (!cacheFile.exists())
+			return;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(getFingerprint())) {
+				Skript.debug("The script parse cache is outdated and will be rebuilt");
+				return;
+			}
+			int scripts = in.readInt();
+			for (int i = 0; i < scripts; i++) {
+				String hash = in.readUTF();
+				int lines = in.readInt();
+				Map<Integer, String> scriptHints = new ConcurrentHashMap<>(lines);
+				for (int j = 0; j < lines; j++)
+					scriptHints.put(in.readInt(), in.readUTF());
+				hints.put(hash, scriptHints);
+			}
+		} catch (IOException e) {
+			hints.clear();
+			Skript.debug("The script parse cache could not be read and will be rebuilt: " + e.getMessage());
+		}
+	}
+
+	public static boolean isEnabled() {
+		return file != null;
+	}
+
+	/**
+	 * Saves the hints of all scripts that were loaded since the cache was enabled.
+	 * Does nothing if the cache isn't enabled.
+	 */
+	public static void save() {
+		File cacheFile = file;
+		if (cacheFile == null)
+			return;
+		File parent = cacheFile.getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			Skript.warning("Could not create the folder of the script parse cache: " + parent);
+			return;
+		}
+		File temp = new File(parent, cacheFile.getName() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(getFingerprint());
+				List<Map.Entry<String, Map<Integer, String>>> scripts = new ArrayList<>();
+				for (Map.Entry<String, Map<Integer, String>> e : hints.entrySet()) {
+					if (used.contains(e.getKey()))
+						scripts.add(e);
+				}
+				out.writeInt(scripts.size());
+				for (Map.Entry<String, Map<Integer, String>> script : scripts) {
+					// copy first, as lines may still be added while saving
+					Map<Integer, String> lines = new HashMap<>(script.getValue());
+					out.writeUTF(script.getKey());
+					out.writeInt(lines.size());
+					for (Map.Entry<Integer, String> line : lines.entrySet()) {
+						out.writeInt(line.getKey());
+						out.writeUTF(line.getValue());
+					}
+				}
+			}
+			Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Skript.warning("Could not save the script parse cache: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return The class of the element that parsed the given node the last time its script was loaded,
+	 * or null if the cache isn't enabled or there is no hint for the node.
+	 */
+	@Nullable
+	public static Class<?> getHint(Node node) {
+		if (file == null)
+			return null;
+		String hash = getHash(node.getConfig());
+		if (hash == null)
+			return null;
+		Map<Integer, String> scriptHints = hints.get(hash);
+		if (scriptHints == null)
+			return null;
+		String className = scriptHints.get(node.getLine());
+		if (className == null)
+			return null;
+		return getElementClasses().get(className);
+	}
+
+	/**
+	 * Records that the given node was parsed by an element of the given class.
+	 */
+	public static void setHint(Node node, Class<?> elementClass) {
+		if (file == null)
+			return;
+		String hash = getHash(node.getConfig());
+		if (hash == null)
+			return;
+		hints.computeIfAbsent(hash, k -> new ConcurrentHashMap<>()).put(node.getLine(), elementClass.getName());
+	}
+
+	/**
+	 * @return The infos of the given collection whose element class is the given class.
+	 */
+	public static <T extends SyntaxElementInfo<?>> Iterator<T> getInfos(Collection<T> infos, Class<?> elementClass) {
+		List<T> matching = new ArrayList<>(1);
+		for (T info : infos) {
+			if (info.getElementClass() == elementClass)
+				matching.add(info);
+		}
+		return matching.iterator();
+	}
+
+	private static Map<String, Class<?>> getElementClasses() {
+		Map<String, Class<?>> elementClasses = ParseCache.elementClasses;
+		if (elementClasses == null) {
+			// registrations are closed before any script is loaded, so this doesn't change afterwards
+			elementClasses = new HashMap<>();
+			for (SyntaxElementInfo<?> info : Skript.getStatements())
+				elementClasses.put(info.getElementClass().getName(), info.getElementClass());
+			for (SyntaxElementInfo<?> info : Skript.getSections())
+				elementClasses.put(info.getElementClass().getName(), info.getElementClass());
+			ParseCache.elementClasses = elementClasses;
+		}
+		return elementClasses;
+	}
+
+	/**
+	 * @return The hash of the bytes the given config was parsed from, so that hints are never stored under the hash
+	 * of a newer version of the file.
+	 */
+	@Nullable
+	private static String getHash(Config config) {
+		String hash = hashes.get(config);
+		if (hash != null)
+			return hash;
+		byte[] digest = config.getHash();
+		if (digest == null)
+			return null;
+		hash = Base64.getEncoder().encodeToString(digest);
+		hashes.put(config, hash);
+		used.add(hash);
+		return hash;
+	}
+
+	/**
+	 * The Skript version, the installed addons, the server version and the contents of Skript's config and aliases.
+	 * If any of these change, the cache is discarded.
+	 */
+	private static String getFingerprint() throws IOException {
+		List<String> addons = new ArrayList<>();
+		for (SkriptAddon addon : Skript.getAddons())
+			addons.add(addon.plugin.getDescription().getFullName());
+		Collections.sort(addons);
+		StringBuilder fingerprint = new StringBuilder(Skript.getVersion().toString());
+		for (String addon : addons)
+			fingerprint.append(';').append(addon);
+		// Many elements are only registered if the server has the classes or methods they need
+		fingerprint.append(';').append(Bukkit.getVersion()).append(';').append(Bukkit.getBukkitVersion());
+		File dataFolder = Skript.getInstance().getDataFolder();
+		File config = new File(dataFolder, "config.sk");
+		if (config.exists())
+			fingerprint.append(';').append(hash(Files.readAllBytes(config.toPath())));
+		fingerprint.append(';').append(hashAliases(dataFolder.toPath()));
+		return fingerprint.toString();
+	}
+
+	/**
+	 * @return The hash of the aliases that are loaded from the data folder, see {@link ch.njol.skript.aliases.Aliases}.
+	 * The default aliases in Skript's jar are covered by the Skript version.
+	 */
+	private static String hashAliases(Path dataFolder) throws IOException {
+		MessageDigest digest = newDigest();
+		List<Path> files = new ArrayList<>();
+		Path zip = dataFolder.resolve("aliases-english.zip");
+		if (Files.isRegularFile(zip))
+			files.add(zip);
+		Path folder = dataFolder.resolve("aliases");
+		if (Files.isDirectory(folder)) {
+			try (Stream<Path> stream = Files.walk(folder)) {
+				stream.filter(Files::isRegularFile).sorted().forEach(files::add);
+			}
+		}
+		for (Path path : files) {
+			digest.update(dataFolder.relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+			digest.update(Files.readAllBytes(path));
+		}
+		return Base64.getEncoder().encodeToString(digest.digest());
+	}
+
+	private static String hash(byte[] bytes) {
+		return Base64.getEncoder().encodeToString(newDigest().digest(bytes));
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java implementation is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
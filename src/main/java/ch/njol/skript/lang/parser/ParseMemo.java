@@ -0,0 +1,140 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.lang.ParseContext;
+import ch.njol.skript.lang.SkriptParser.ExprInfo;
+import ch.njol.skript.log.LogEntry;
+import ch.njol.skript.log.SkriptLogger;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Remembers which sub-expressions of the line currently being parsed failed to parse,
+ * together with the error they logged,
+ * so the many alternative patterns and list splits that try the same substring again don't have to re-parse it.
+ * <p>
+ * A memo table only exists between {@link #begin()} and {@link #end()}, which should surround the parsing of a single line,
+ * as the result of parsing an expression depends on the parser's state (e.g. the current events), which may change between lines.
+ * Tables nest, so a section may load its contents while its own line is still being parsed.
+ * <p>
+ * Only failures are remembered: a successfully parsed expression is a mutable object
+ * that its user may still modify (e.g. by {@link ch.njol.skript.lang.Expression#setTime(int)}), so it can't be shared.
+ */
+public final class ParseMemo extends ParserInstance.Data {
+
+	private final Deque<Map<Key, Optional<LogEntry>>> tables = new ArrayDeque<>();
+
+	public ParseMemo(ParserInstance parserInstance) {
+		super(parserInstance);
+	}
+
+	/**
+	 * Starts a new memo table, which is used until the matching {@link #end()}.
+	 */
+	public void begin() {
+		tables.push(new HashMap<>());
+	}
+
+	/**
+	 * Discards the memo table started by the last {@link #begin()}, restoring the previous one (if any).
+	 */
+	public void end() {
+		tables.pop();
+	}
+
+	/**
+	 * @return Whether parsing the given expression as the given type has failed before in the current line.
+	 * If so, the error it logged is logged again.
+	 */
+	public boolean hasFailed(String expr, ExprInfo info, int flags, ParseContext context) {
+		Map<Key, Optional<LogEntry>> table = tables.peek();
+		if (table == null)
+			return false;
+		Optional<LogEntry> failure = table.get(new Key(expr, info, flags, context));
+		//noinspection OptionalAssignedToNull
+		if (failure == null)
+			return false;
+		getParser().getData(ParseStatistics.class).memoized();
+		if (failure.isPresent()) {
+			LogEntry error = failure.get();
+			SkriptLogger.log(new LogEntry(error.level, error.quality, error.message, error.node));
+		}
+		return true;
+	}
+
+	/**
+	 * Remembers that parsing the given expression as the given type failed with the given error.
+	 */
+	public void failed(String expr, ExprInfo info, int flags, ParseContext context, @Nullable LogEntry error) {
+		Map<Key, Optional<LogEntry>> table = tables.peek();
+		if (table != null)
+			table.put(new Key(expr, info, flags, context), Optional.ofNullable(error));
+	}
+
+	private static final class Key {
+
+		private final String expr;
+		private final ExprInfo info;
+		private final int flags;
+		private final ParseContext context;
+		private final int hashCode;
+
+		private Key(String expr, ExprInfo info, int flags, ParseContext context) {
+			this.expr = expr;
+			this.info = info;
+			this.flags = flags;
+			this.context = context;
+			this.hashCode = Objects.hash(expr, Arrays.hashCode(info.classes), Arrays.hashCode(info.isPlural),
+				info.isOptional, info.flagMask, info.time, flags, context);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof Key))
+				return false;
+			Key other = (Key) object;
+			return hashCode == other.hashCode
+				&& flags == other.flags
+				&& context == other.context
+				&& expr.equals(other.expr)
+				&& Arrays.equals(info.classes, other.info.classes)
+				&& Arrays.equals(info.isPlural, other.info.isPlural)
+				&& info.isOptional == other.info.isOptional
+				&& info.flagMask == other.info.flagMask
+				&& info.time == other.info.time;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+	}
+
+}
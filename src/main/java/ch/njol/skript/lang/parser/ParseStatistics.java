@@ -0,0 +1,83 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.lang.SkriptParser;
+
+/**
+ * Counts how many syntax patterns {@link SkriptParser} tried, matched and skipped on a parser.
+ * The counts are cumulative, so the effort spent on a single line is the difference of the counts before and after parsing it.
+ * <p>
+ * Skipped patterns belong to syntax elements that the {@link ch.njol.skript.lang.SyntaxIndex} ruled out for the line.
+ */
+public class ParseStatistics extends ParserInstance.Data {
+
+	private long patternsTried, patternsMatched, patternsSkipped, memoHits;
+
+	public ParseStatistics(ParserInstance parserInstance) {
+		super(parserInstance);
+	}
+
+	public void tried(boolean matched) {
+		patternsTried++;
+		if (matched)
+			patternsMatched++;
+	}
+
+	public void skipped(int patterns) {
+		patternsSkipped += patterns;
+	}
+
+	public void memoized() {
+		memoHits++;
+	}
+
+	/**
+	 * @return How many patterns were matched against a line.
+	 */
+	public long getPatternsTried() {
+		return patternsTried;
+	}
+
+	/**
+	 * @return How many of the tried patterns matched, whether the element was initialised successfully or not.
+	 */
+	public long getPatternsMatched() {
+		return patternsMatched;
+	}
+
+	/**
+	 * @return How many patterns were never tried because the syntax index ruled them out.
+	 */
+	public long getPatternsSkipped() {
+		return patternsSkipped;
+	}
+
+	/**
+	 * @return How many sub-expressions were not parsed again because the {@link ParseMemo} knew they would fail.
+	 */
+	public long getMemoHits() {
+		return memoHits;
+	}
+
+	public void reset() {
+		patternsTried = patternsMatched = patternsSkipped = memoHits = 0;
+	}
+
+}
@@ -58,11 +58,12 @@ public class ChoicePatternElement extends PatternElement {
 	@Override
 	@Nullable
 	public MatchResult match(String expr, MatchResult matchResult) {
-		for (PatternElement patternElement : patternElements) {
-			MatchResult matchResultCopy = matchResult.copy();
-			MatchResult newMatchResult = patternElement.match(expr, matchResultCopy);
+		int checkpoint = matchResult.checkpoint();
+		for (int i = 0; i < patternElements.size(); i++) {
+			MatchResult newMatchResult = patternElements.get(i).match(expr, matchResult);
 			if (newMatchResult != null)
 				return newMatchResult;
+			matchResult.restore(checkpoint);
 		}
 		return null;
 	}
@@ -41,22 +41,21 @@ public class LiteralPatternElement extends PatternElement {
 	@Override
 	@Nullable
 	public MatchResult match(String expr, MatchResult matchResult) {
-		char[] exprChars = expr.toCharArray();
-
+		int exprLength = expr.length();
 		int exprIndex = matchResult.exprOffset;
 		for (char c : literal) {
 			if (c == ' ') { // spaces have special handling to account for extraneous spaces within lines
 				// ignore patterns leading or ending with spaces (or if we have multiple leading spaces)
-				if (exprIndex == 0 || exprIndex == exprChars.length)
+				if (exprIndex == 0 || exprIndex == exprLength)
 					continue;
-				if (exprChars[exprIndex] == ' ') { // pattern is ' fly' and we were given ' fly'
+				if (expr.charAt(exprIndex) == ' ') { // pattern is ' fly' and we were given ' fly'
 					exprIndex++;
 					continue;
 				}
-				if (exprChars[exprIndex - 1] == ' ') // pattern is ' fly' but we were given something like '  fly' or 'fly'
+				if (expr.charAt(exprIndex - 1) == ' ') // pattern is ' fly' but we were given something like '  fly' or 'fly'
 					continue;
 				return null;
-			} else if (exprIndex == exprChars.length || Character.toLowerCase(c) != Character.toLowerCase(exprChars[exprIndex]))
+			} else if (exprIndex == exprLength || Character.toLowerCase(c) != Character.toLowerCase(expr.charAt(exprIndex)))
 				return null;
 			exprIndex++;
 		}
@@ -43,6 +43,94 @@ public class MatchResult {
 	ParseContext parseContext = ParseContext.DEFAULT;
 	int flags;
 
+	/*
+	 * Backtracking
+	 *
+	 * Pattern elements that try alternatives share a single MatchResult instead of copying it for each of them.
+	 * Before trying an alternative, they take a checkpoint of the state, and if the alternative fails they restore it.
+	 * An element that fails may leave the state modified: whichever element tried it restores it.
+	 */
+
+	// exprOffset, mark, tags size, regexResults size and expression log size of each checkpoint
+	private int[] checkpoints = new int[5 * 8];
+	private int checkpointsSize;
+
+	// the indices of the expressions set since the start of the match, in order
+	private int[] expressionLog = new int[4];
+	private int expressionLogSize;
+
+	/**
+	 * Prepares this instance to match the given expression, discarding anything from a previous match.
+	 */
+	void reset(String expr, int expressionAmount, int flags, ParseContext parseContext) {
+		this.exprOffset = 0;
+		if (expressions.length == expressionAmount) {
+			Arrays.fill(expressions, null);
+		} else {
+			expressions = new Expression[expressionAmount];
+		}
+		this.expr = expr;
+		this.mark = 0;
+		tags.clear();
+		regexResults.clear();
+		this.parseContext = parseContext;
+		this.flags = flags;
+		checkpointsSize = 0;
+		expressionLogSize = 0;
+	}
+
+	/**
+	 * Saves the current state, so it can be restored if the alternative about to be tried fails.
+	 * @return The checkpoint to pass to {@link #restore(int)}.
+	 */
+	int checkpoint() {
+		if (checkpointsSize + 5 > checkpoints.length)
+			checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+		int checkpoint = checkpointsSize;
+		checkpoints[checkpoint] = exprOffset;
+		checkpoints[checkpoint + 1] = mark;
+		checkpoints[checkpoint + 2] = tags.size();
+		checkpoints[checkpoint + 3] = regexResults.size();
+		checkpoints[checkpoint + 4] = expressionLogSize;
+		checkpointsSize += 5;
+		return checkpoint;
+	}
+
+	/**
+	 * Undoes everything that happened since the given checkpoint was taken.
+	 * The checkpoint may be restored again, but checkpoints taken after it may not.
+	 */
+	void restore(int checkpoint) {
+		exprOffset = checkpoints[checkpoint];
+		mark = checkpoints[checkpoint + 1];
+		int tagsSize = checkpoints[checkpoint + 2];
+		while (tags.size() > tagsSize)
+			tags.remove(tags.size() - 1);
+		// regex results are prepended, see addRegexResult
+		int regexResultsSize = checkpoints[checkpoint + 3];
+		if (regexResults.size() > regexResultsSize)
+			regexResults.subList(0, regexResults.size() - regexResultsSize).clear();
+		int expressionLogSize = checkpoints[checkpoint + 4];
+		while (this.expressionLogSize > expressionLogSize)
+			expressions[expressionLog[--this.expressionLogSize]] = null;
+		checkpointsSize = checkpoint + 5;
+	}
+
+	void setExpression(int index, Expression<?> expression) {
+		if (expressionLogSize == expressionLog.length)
+			expressionLog = Arrays.copyOf(expressionLog, expressionLog.length * 2);
+		expressionLog[expressionLogSize++] = index;
+		expressions[index] = expression;
+	}
+
+	/**
+	 * Adds a regex result. As these are added while returning from a successful match,
+	 * i.e. from the last pattern element to the first, they are prepended to keep them in the pattern's order.
+	 */
+	void addRegexResult(java.util.regex.MatchResult regexResult) {
+		regexResults.add(0, regexResult);
+	}
+
 	public MatchResult copy() {
 		MatchResult matchResult = new MatchResult();
 		matchResult.exprOffset = this.exprOffset;
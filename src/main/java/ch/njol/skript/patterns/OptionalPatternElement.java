@@ -40,9 +40,11 @@ public class OptionalPatternElement extends PatternElement {
 	@Override
 	@Nullable
 	public MatchResult match(String expr, MatchResult matchResult) {
-		MatchResult newMatchResult = patternElement.match(expr, matchResult.copy());
+		int checkpoint = matchResult.checkpoint();
+		MatchResult newMatchResult = patternElement.match(expr, matchResult);
 		if (newMatchResult != null)
 			return newMatchResult;
+		matchResult.restore(checkpoint);
 		return matchNext(expr, matchResult);
 	}
 
@@ -41,6 +41,7 @@ public class RegexPatternElement extends PatternElement {
 	@Nullable
 	public MatchResult match(String expr, MatchResult matchResult) {
 		int exprIndex = matchResult.exprOffset;
+		int checkpoint = matchResult.checkpoint();
 
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
@@ -52,16 +53,15 @@ public class RegexPatternElement extends PatternElement {
 				log.clear();
 				matcher.region(exprIndex, nextExprOffset);
 				if (matcher.matches()) {
-					MatchResult matchResultCopy = matchResult.copy();
-					matchResultCopy.exprOffset = nextExprOffset;
+					matchResult.exprOffset = nextExprOffset;
 
-					MatchResult newMatchResult = matchNext(expr, matchResultCopy);
+					MatchResult newMatchResult = matchNext(expr, matchResult);
 					if (newMatchResult != null) {
-						// Append to end of list
-						newMatchResult.regexResults.add(0, matcher.toMatchResult());
+						newMatchResult.addRegexResult(matcher.toMatchResult());
 						log.printLog();
 						return newMatchResult;
 					}
+					matchResult.restore(checkpoint);
 				}
 			}
 			log.printError(null);
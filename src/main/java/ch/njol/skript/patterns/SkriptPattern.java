@@ -18,14 +18,20 @@
  */
 package ch.njol.skript.patterns;
 
-import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public class SkriptPattern {
 
@@ -34,28 +40,53 @@ public class SkriptPattern {
 
 	private final String[] keywords;
 
+	@Nullable
+	private final String firstCharacters;
+
+	/**
+	 * Reusable match states, so that a match only allocates once it succeeds.
+	 */
+	private static final ThreadLocal<Deque<MatchResult>> MATCH_STATES = ThreadLocal.withInitial(ArrayDeque::new);
+
 	public SkriptPattern(PatternElement first, int expressionAmount) {
 		this.first = first;
 		this.expressionAmount = expressionAmount;
 		keywords = getKeywords(first);
+		firstCharacters = getFirstCharacters(first);
 	}
 
 	@Nullable
 	public MatchResult match(String expr, int flags, ParseContext parseContext) {
-		// Matching shortcut
-		String lowerExpr = expr.toLowerCase(Locale.ENGLISH);
+		expr = expr.trim();
+
+		// Matching shortcuts
+		if (!expr.isEmpty() && !canStartWith(expr.charAt(0)))
+			return null;
 		for (String keyword : keywords)
-			if (!lowerExpr.contains(keyword))
+			if (!containsIgnoreCase(expr, keyword))
 				return null;
 
-		expr = expr.trim();
+		// Matching may recurse into other patterns through type elements, hence the stack of match states
+		Deque<MatchResult> matchStates = MATCH_STATES.get();
+		MatchResult matchState = matchStates.poll();
+		if (matchState == null)
+			matchState = new MatchResult();
+		try {
+			matchState.reset(expr, expressionAmount, flags, parseContext);
+			MatchResult matchResult = first.match(expr, matchState);
+			return matchResult == null ? null : matchResult.copy();
+		} finally {
+			matchStates.push(matchState);
+		}
+	}
 
-		MatchResult matchResult = new MatchResult();
-		matchResult.expr = expr;
-		matchResult.expressions = new Expression[expressionAmount];
-		matchResult.parseContext = parseContext;
-		matchResult.flags = flags;
-		return first.match(expr, matchResult);
+	private static boolean containsIgnoreCase(String haystack, String needle) {
+		int needleLength = needle.length();
+		for (int i = haystack.length() - needleLength; i >= 0; i--) {
+			if (haystack.regionMatches(true, i, needle, 0, needleLength))
+				return true;
+		}
+		return false;
 	}
 
 	@Nullable
@@ -86,6 +117,201 @@ public class SkriptPattern {
 		return keywords.toArray(new String[0]);
 	}
 
+	/**
+	 * @return whether a (trimmed) expression starting with the given character could match this pattern.
+	 * This is only a quick check: a return value of true does not mean the expression will match.
+	 */
+	public boolean canStartWith(char c) {
+		return firstCharacters == null || firstCharacters.indexOf(Character.toLowerCase(c)) != -1;
+	}
+
+	/**
+	 * @return the lowercase characters any expression matching this pattern has to start with,
+	 * or null if the pattern may start with any character, e.g. because it starts with a type or a regex.
+	 */
+	@Nullable
+	public String getFirstCharacters() {
+		return firstCharacters;
+	}
+
+	/**
+	 * @return the lowercase characters any expression matching the pattern starting with the given element has to start with,
+	 * or null if it may start with any character.
+	 */
+	@Nullable
+	public static String getFirstCharacters(PatternElement first) {
+		Set<Character> characters = getFirstCharacters(first, new IdentityHashMap<>());
+		if (characters == null)
+			return null;
+		StringBuilder builder = new StringBuilder(characters.size());
+		for (char c : characters)
+			builder.append(c);
+		return builder.toString();
+	}
+
+	@Nullable
+	private static Set<Character> getFirstCharacters(@Nullable PatternElement element, Map<PatternElement, Optional<Set<Character>>> cache) {
+		if (element == null) // the end of the pattern only matches the end of the expression
+			return Collections.emptySet();
+		Optional<Set<Character>> cached = cache.get(element);
+		//noinspection OptionalAssignedToNull
+		if (cached != null)
+			return cached.orElse(null);
+
+		Set<Character> characters = new HashSet<>();
+		if (element instanceof LiteralPatternElement) {
+			String literal = element.toString();
+			// leading spaces are skipped at the start of an expression
+			int i = 0;
+			while (i < literal.length() && literal.charAt(i) == ' ')
+				i++;
+			if (i < literal.length()) {
+				characters.add(Character.toLowerCase(literal.charAt(i)));
+			} else {
+				characters = getFirstCharacters(element.next, cache);
+			}
+		} else if (element instanceof ChoicePatternElement) {
+			for (PatternElement choice : ((ChoicePatternElement) element).getPatternElements()) {
+				Set<Character> choiceCharacters = getFirstCharacters(choice, cache);
+				if (choiceCharacters == null) {
+					characters = null;
+					break;
+				}
+				characters.addAll(choiceCharacters);
+			}
+		} else if (element instanceof OptionalPatternElement) {
+			Set<Character> inner = getFirstCharacters(((OptionalPatternElement) element).getPatternElement(), cache);
+			Set<Character> next = getFirstCharacters(element.next, cache);
+			if (inner == null || next == null) {
+				characters = null;
+			} else {
+				characters.addAll(inner);
+				characters.addAll(next);
+			}
+		} else if (element instanceof GroupPatternElement) {
+			characters = getFirstCharacters(((GroupPatternElement) element).getPatternElement(), cache);
+		} else if (element instanceof ParseTagPatternElement) {
+			characters = getFirstCharacters(element.next, cache);
+		} else { // types and regexes may start with anything
+			characters = null;
+		}
+
+		cache.put(element, Optional.ofNullable(characters));
+		return characters;
+	}
+
+	/**
+	 * The maximum amount of first words a pattern may have to be indexed by them, see {@link #getFirstWords()}.
+	 */
+	private static final int MAX_FIRST_WORDS = 64;
+
+	/**
+	 * The first words an expression matching a pattern can start with, see {@link #getFirstWord(String)}.
+	 */
+	public static final class FirstWords {
+
+		private final Set<String> words = new HashSet<>();
+		private final Set<String> prefixes = new HashSet<>();
+
+		private FirstWords() {}
+
+		/**
+		 * @return the first words a matching expression can start with.
+		 */
+		public Set<String> getWords() {
+			return Collections.unmodifiableSet(words);
+		}
+
+		/**
+		 * @return the prefixes of the first words a matching expression can start with,
+		 * i.e. where a type or regex may continue the word.
+		 */
+		public Set<String> getPrefixes() {
+			return Collections.unmodifiableSet(prefixes);
+		}
+
+		private boolean add(Set<String> set, String word) {
+			set.add(word);
+			return words.size() + prefixes.size() <= MAX_FIRST_WORDS;
+		}
+
+	}
+
+	/**
+	 * @return the first words an expression matching this pattern can start with,
+	 * or null if the pattern may start with anything, e.g. because it starts with a type or a regex,
+	 * or if it has too many first words to be worth indexing.
+	 */
+	@Nullable
+	public FirstWords getFirstWords() {
+		FirstWords firstWords = new FirstWords();
+		return addFirstWords(first, "", firstWords) ? firstWords : null;
+	}
+
+	private static boolean addFirstWords(@Nullable PatternElement element, String prefix, FirstWords firstWords) {
+		if (element == null) // the end of the pattern only matches the end of the expression
+			return firstWords.add(firstWords.words, prefix);
+
+		if (element instanceof LiteralPatternElement) {
+			String literal = element.toString();
+			StringBuilder word = new StringBuilder(prefix);
+			for (int i = 0; i < literal.length(); i++) {
+				char c = Character.toLowerCase(literal.charAt(i));
+				if (isWordCharacter(c)) {
+					word.append(c);
+				} else if (word.length() != 0) {
+					return firstWords.add(firstWords.words, word.toString());
+				} else if (c != ' ') { // leading spaces are skipped at the start of an expression
+					return firstWords.add(firstWords.words, String.valueOf(c));
+				}
+			}
+			return addFirstWords(element.next, word.toString(), firstWords);
+		} else if (element instanceof ChoicePatternElement) {
+			for (PatternElement choice : ((ChoicePatternElement) element).getPatternElements()) {
+				if (!addFirstWords(choice, prefix, firstWords))
+					return false;
+			}
+			return true;
+		} else if (element instanceof OptionalPatternElement) {
+			return addFirstWords(((OptionalPatternElement) element).getPatternElement(), prefix, firstWords)
+				&& addFirstWords(element.next, prefix, firstWords);
+		} else if (element instanceof GroupPatternElement) {
+			return addFirstWords(((GroupPatternElement) element).getPatternElement(), prefix, firstWords);
+		} else if (element instanceof ParseTagPatternElement) {
+			return addFirstWords(element.next, prefix, firstWords);
+		}
+		// types and regexes may start with anything, but they can only continue a word that was started before them
+		return !prefix.isEmpty() && firstWords.add(firstWords.prefixes, prefix);
+	}
+
+	/**
+	 * @return the lowercase first word of the given expression, ignoring leading whitespace:
+	 * the letters and digits it starts with, or its first character if that is neither.
+	 * Empty if the expression is blank.
+	 */
+	public static String getFirstWord(String expr) {
+		int start = 0;
+		while (start < expr.length() && expr.charAt(start) <= ' ')
+			start++;
+		if (start == expr.length())
+			return "";
+		char first = Character.toLowerCase(expr.charAt(start));
+		if (!isWordCharacter(first))
+			return String.valueOf(first);
+		StringBuilder word = new StringBuilder().append(first);
+		for (int i = start + 1; i < expr.length(); i++) {
+			char c = Character.toLowerCase(expr.charAt(i));
+			if (!isWordCharacter(c))
+				break;
+			word.append(c);
+		}
+		return word.toString();
+	}
+
+	private static boolean isWordCharacter(char c) {
+		return Character.isLetterOrDigit(c);
+	}
+
 	/**
 	 * @return the size of the {@link MatchResult#expressions} array
 	 * from a match.
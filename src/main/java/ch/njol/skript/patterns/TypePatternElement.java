@@ -138,20 +138,21 @@ public class TypePatternElement extends PatternElement {
 
 		ExprInfo exprInfo = getExprInfo();
 
+		int exprOffset = matchResult.exprOffset;
+		int checkpoint = matchResult.checkpoint();
 		ParseLogHandler loopLogHandler = SkriptLogger.startParseLogHandler();
 		try {
 			while (newExprOffset != -1) {
 				loopLogHandler.clear();
 
-				MatchResult matchResultCopy = matchResult.copy();
-				matchResultCopy.exprOffset = newExprOffset;
+				matchResult.exprOffset = newExprOffset;
 
-				MatchResult newMatchResult = matchNext(expr, matchResultCopy);
+				MatchResult newMatchResult = matchNext(expr, matchResult);
 
 				if (newMatchResult != null) {
 					ParseLogHandler expressionLogHandler = SkriptLogger.startParseLogHandler();
 					try {
-						Expression<?> expression = new SkriptParser(expr.substring(matchResult.exprOffset, newExprOffset), matchResult.flags & flagMask, matchResult.parseContext).parseExpression(exprInfo);
+						Expression<?> expression = new SkriptParser(expr.substring(exprOffset, newExprOffset), matchResult.flags & flagMask, matchResult.parseContext).parseExpression(exprInfo);
 						if (expression != null) {
 							if (time != 0) {
 								if (expression instanceof Literal)
@@ -171,13 +172,14 @@ public class TypePatternElement extends PatternElement {
 							expressionLogHandler.printLog();
 							loopLogHandler.printLog();
 
-							newMatchResult.expressions[expressionIndex] = expression;
+							newMatchResult.setExpression(expressionIndex, expression);
 							return newMatchResult;
 						}
 					} finally {
 						expressionLogHandler.printError();
 					}
 				}
+				matchResult.restore(checkpoint);
 
 				if (nextLiteral != null) {
 					int oldNewExprOffset = newExprOffset;
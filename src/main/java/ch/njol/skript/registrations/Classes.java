@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.NotSerializableException;
 import java.io.SequenceInputStream;
+import java.io.StreamCorruptedException;
 import java.lang.reflect.Array;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -55,6 +56,7 @@ import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.localization.Language;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.ValueCodecs.ValueCodec;
 import ch.njol.skript.util.StringMode;
 import ch.njol.skript.variables.SQLStorage;
 import ch.njol.skript.variables.SerializedVariable;
@@ -81,7 +83,6 @@ public abstract class Classes {
 	private static ClassInfo<?>[] classInfos = null;
 	private final static List<ClassInfo<?>> tempClassInfos = new ArrayList<>();
 	private final static HashMap<Class<?>, ClassInfo<?>> exactClassInfos = new HashMap<>();
-	private final static HashMap<Class<?>, ClassInfo<?>> superClassInfos = new HashMap<>();
 	private final static HashMap<String, ClassInfo<?>> classInfosByCodeName = new HashMap<>();
 	
 	/**
@@ -295,6 +296,38 @@ public abstract class Classes {
 		return (ClassInfo<T>) exactClassInfos.get(c);
 	}
 	
+	/**
+	 * The superclass infos of every class that was looked up, see {@link #getSuperClassInfo(Class)}.
+	 * Class infos can't change once registration is over, so these are resolved only once per class.
+	 * Reading a ClassValue doesn't need locking, as this is done from any thread whenever a value is changed, saved or displayed.
+	 */
+	private static final ClassValue<SuperClassInfos> superClassInfos = new ClassValue<SuperClassInfos>() {
+		@Override
+		protected SuperClassInfos computeValue(Class<?> c) {
+			ClassInfo<?>[] classInfos = Classes.classInfos;
+			assert classInfos != null;
+			List<ClassInfo<?>> all = new ArrayList<>();
+			for (ClassInfo<?> ci : classInfos) {
+				if (ci.getC().isAssignableFrom(c))
+					all.add(ci);
+			}
+			return new SuperClassInfos(Collections.unmodifiableList(all));
+		}
+	};
+
+	private static final class SuperClassInfos {
+
+		/**
+		 * The class infos of the class and its superclasses, the closest one first.
+		 */
+		private final List<ClassInfo<?>> all;
+
+		private SuperClassInfos(List<ClassInfo<?>> all) {
+			this.all = all;
+		}
+
+	}
+
 	/**
 	 * Gets the class info of the given class or its closest registered superclass. This method will never return null unless <tt>c</tt> is null.
 	 * 
@@ -305,37 +338,22 @@ public abstract class Classes {
 	public static <T> ClassInfo<? super T> getSuperClassInfo(final Class<T> c) {
 		assert c != null;
 		checkAllowClassInfoInteraction();
-		final ClassInfo<?> i = superClassInfos.get(c);
-		if (i != null)
-			return (ClassInfo<? super T>) i;
-		for (final ClassInfo<?> ci : getClassInfos()) {
-			if (ci.getC().isAssignableFrom(c)) {
-				if (!Skript.isAcceptRegistrations())
-					superClassInfos.put(c, ci);
-				return (ClassInfo<? super T>) ci;
-			}
-		}
-		assert false;
-		return null;
+		List<ClassInfo<?>> all = superClassInfos.get(c).all;
+		assert !all.isEmpty();
+		return (ClassInfo<? super T>) all.get(0);
 	}
 
 	/**
 	 * Gets all the class info of the given class in closest order to ending on object. This list will never be empty unless <tt>c</tt> is null.
 	 * 
 	 * @param c the class to check if assignable from
-	 * @return The closest list of superclass infos
+	 * @return The closest list of superclass infos. This list is unmodifiable.
 	 */
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public static <T> List<ClassInfo<? super T>> getAllSuperClassInfos(Class<T> c) {
 		assert c != null;
 		checkAllowClassInfoInteraction();
-		List<ClassInfo<? super T>> list = new ArrayList<>();
-		for (ClassInfo<?> ci : getClassInfos()) {
-			if (ci.getC().isAssignableFrom(c)) {
-				list.add((ClassInfo<? super T>) ci);
-			}
-		}
-		return list;
+		return (List) superClassInfos.get(c).all;
 	}
 	
 	/**
@@ -713,22 +731,49 @@ public abstract class Classes {
 	}
 	
 	/**
-	 * Must be called on the appropriate thread for the given value (i.e. the main thread currently)
+	 * Gets the class info whose serializer is used to serialize objects of the given class,
+	 * i.e. the class info of its {@link ClassInfo#getSerializeAs() serializeAs} class if it has one.
+	 * 
+	 * @param c The class of the objects to serialize
+	 * @return The class info used to serialize objects of the given class, or null if its serializeAs class is not registered
+	 */
+	@Nullable
+	public static ClassInfo<?> getSerializingClassInfo(final Class<?> c) {
+		final ClassInfo<?> ci = getSuperClassInfo(c);
+		if (ci.getSerializeAs() != null)
+			return getExactClassInfo(ci.getSerializeAs());
+		return ci;
+	}
+	
+	/**
+	 * @param o The object to serialize
+	 * @return Whether serializing the given object requires Bukkit's main thread,
+	 * i.e. whether the serializer {@link #serialize(Object)} uses for it {@link Serializer#mustSyncDeserialization() requires it}.
+	 */
+	public static boolean mustSerializeSync(final Object o) {
+		final ClassInfo<?> ci = getSerializingClassInfo(o.getClass());
+		if (ci == null)
+			return false;
+		final Serializer<?> s = ci.getSerializer();
+		return s != null && s.mustSyncDeserialization();
+	}
+	
+	/**
+	 * Must be called on the appropriate thread for the given value,
+	 * i.e. Bukkit's main thread if its serializer {@link Serializer#mustSyncDeserialization() requires it}.
+	 * 
+	 * @see #mustSerializeSync(Object)
 	 */
 	public static SerializedVariable.@Nullable Value serialize(@Nullable Object o) {
 		if (o == null)
 			return null;
 		
-		// temporary
-		assert Bukkit.isPrimaryThread();
-		
-		ClassInfo<?> ci = getSuperClassInfo(o.getClass());
-		if (ci.getSerializeAs() != null) {
-			ci = getExactClassInfo(ci.getSerializeAs());
-			if (ci == null) {
-				assert false : o.getClass();
-				return null;
-			}
+		final ClassInfo<?> ci = getSerializingClassInfo(o.getClass());
+		if (ci == null) {
+			assert false : o.getClass();
+			return null;
+		}
+		if (ci != getSuperClassInfo(o.getClass())) {
 			o = Converters.convert(o, ci.getC());
 			if (o == null) {
 				assert false : ci.getCodeName();
@@ -743,28 +788,41 @@ public abstract class Classes {
 		assert s.mustSyncDeserialization() ? Bukkit.isPrimaryThread() : true;
 		
 		try {
-			final ByteArrayOutputStream bout = new ByteArrayOutputStream();
-			final YggdrasilOutputStream yout = Variables.yggdrasil.newOutputStream(bout);
-			yout.writeObject(o);
-			yout.flush();
-			yout.close();
-			final byte[] r = bout.toByteArray();
-			final byte[] start = getYggdrasilStart(ci);
-			for (int i = 0; i < start.length; i++)
-				assert r[i] == start[i] : o + " (" + ci.getC().getName() + "); " + Arrays.toString(start) + ", " + Arrays.toString(r);
-			final byte[] r2 = new byte[r.length - start.length];
-			System.arraycopy(r, start.length, r2, 0, r2.length);
-			
-			Object d;
-			assert equals(o, d = deserialize(ci, new ByteArrayInputStream(r2))) : o + " (" + o.getClass() + ") != " + d + " (" + (d == null ? null : d.getClass()) + "): " + Arrays.toString(r);
-			
-			return new SerializedVariable.Value(ci.getCodeName(), r2);
+			final ValueCodec<Object> codec = ValueCodecs.getCodec(ci.getCodeName());
+			if (codec != null) {
+				final byte[] r = codec.encode(o);
+				assert Arrays.equals(r, serializeWithYggdrasil(o, ci)) : o + " (" + ci.getCodeName() + "): " + Arrays.toString(r);
+				return new SerializedVariable.Value(ci.getCodeName(), r);
+			}
+			return new SerializedVariable.Value(ci.getCodeName(), serializeWithYggdrasil(o, ci));
 		} catch (final IOException e) { // shouldn't happen
 			Skript.exception(e);
 			return null;
 		}
 	}
 	
+	private static byte[] serializeWithYggdrasil(final Object o, final ClassInfo<?> ci) throws IOException {
+		final byte[] start = getYggdrasilStart(ci);
+		final ByteArrayOutputStream bout = new ByteArrayOutputStream() {
+			@Override
+			public synchronized byte[] toByteArray() { // copies only the part after the start instead of everything
+				for (int i = 0; i < start.length; i++)
+					assert buf[i] == start[i] : o + " (" + ci.getC().getName() + "); " + Arrays.toString(start) + ", " + Arrays.toString(Arrays.copyOf(buf, count));
+				return Arrays.copyOfRange(buf, start.length, count);
+			}
+		};
+		final YggdrasilOutputStream yout = Variables.yggdrasil.newOutputStream(bout);
+		yout.writeObject(o);
+		yout.flush();
+		yout.close();
+		final byte[] r = bout.toByteArray();
+		
+		Object d;
+		assert equals(o, d = deserialize(ci, new ByteArrayInputStream(r))) : o + " (" + o.getClass() + ") != " + d + " (" + (d == null ? null : d.getClass()) + "): " + Arrays.toString(r);
+		
+		return r;
+	}
+	
 	private static boolean equals(final @Nullable Object o, final @Nullable Object d) {
 		if (o instanceof Chunk) { // CraftChunk does neither override equals nor is it a "coordinate-specific singleton" like Block
 			if (!(d instanceof Chunk))
@@ -777,6 +835,16 @@ public abstract class Classes {
 	
 	@Nullable
 	public static Object deserialize(final ClassInfo<?> type, final byte[] value) {
+		final ValueCodec<?> codec = ValueCodecs.getCodec(type.getCodeName());
+		if (codec != null) {
+			try {
+				return codec.decode(value);
+			} catch (final StreamCorruptedException e) { // i.e. invalid save
+				if (Skript.testing())
+					e.printStackTrace();
+				return null;
+			}
+		}
 		return deserialize(type, new ByteArrayInputStream(value));
 	}
 	
@@ -785,7 +853,7 @@ public abstract class Classes {
 		final ClassInfo<?> ci = getClassInfoNoError(type);
 		if (ci == null)
 			return null;
-		return deserialize(ci, new ByteArrayInputStream(value));
+		return deserialize(ci, value);
 	}
 	
 	@Nullable
@@ -0,0 +1,211 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.registrations;
+
+import ch.njol.yggdrasil.Yggdrasil;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializes values of the most common types without creating a {@link Yggdrasil} stream for each of them.
+ * <p>
+ * The encoded bytes are exactly the ones Yggdrasil writes for these types after the header that
+ * {@link Classes#serialize(Object)} strips, so values saved either way can be loaded either way,
+ * including by older versions of Skript.
+ */
+final class ValueCodecs {
+
+	private ValueCodecs() {}
+
+	static abstract class ValueCodec<T> {
+
+		abstract byte[] encode(T value);
+
+		/**
+		 * Like Yggdrasil, this ignores any bytes after the value.
+		 */
+		abstract T decode(byte[] data) throws StreamCorruptedException;
+
+	}
+
+	/**
+	 * Codecs by the code name of the class info whose values they encode
+	 */
+	private static final Map<String, ValueCodec<?>> codecs = new HashMap<>();
+
+	static {
+		codecs.put("byte", new ValueCodec<Byte>() {
+			@Override
+			byte[] encode(Byte value) {
+				return new byte[] {value};
+			}
+
+			@Override
+			Byte decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 1);
+				return data[0];
+			}
+		});
+		codecs.put("short", new ValueCodec<Short>() {
+			@Override
+			byte[] encode(Short value) {
+				byte[] data = new byte[2];
+				writeLong(data, value, 2);
+				return data;
+			}
+
+			@Override
+			Short decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 2);
+				return (short) readLong(data, 2);
+			}
+		});
+		codecs.put("integer", new ValueCodec<Integer>() {
+			@Override
+			byte[] encode(Integer value) {
+				byte[] data = new byte[4];
+				writeLong(data, value, 4);
+				return data;
+			}
+
+			@Override
+			Integer decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 4);
+				return (int) readLong(data, 4);
+			}
+		});
+		codecs.put("long", new ValueCodec<Long>() {
+			@Override
+			byte[] encode(Long value) {
+				byte[] data = new byte[8];
+				writeLong(data, value, 8);
+				return data;
+			}
+
+			@Override
+			Long decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 8);
+				return readLong(data, 8);
+			}
+		});
+		codecs.put("float", new ValueCodec<Float>() {
+			@Override
+			byte[] encode(Float value) {
+				byte[] data = new byte[4];
+				writeLong(data, Float.floatToIntBits(value), 4);
+				return data;
+			}
+
+			@Override
+			Float decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 4);
+				return Float.intBitsToFloat((int) readLong(data, 4));
+			}
+		});
+		codecs.put("double", new ValueCodec<Double>() {
+			@Override
+			byte[] encode(Double value) {
+				byte[] data = new byte[8];
+				writeLong(data, Double.doubleToLongBits(value), 8);
+				return data;
+			}
+
+			@Override
+			Double decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 8);
+				return Double.longBitsToDouble(readLong(data, 8));
+			}
+		});
+		codecs.put("boolean", new ValueCodec<Boolean>() {
+			@Override
+			byte[] encode(Boolean value) {
+				return new byte[] {(byte) (value ? 1 : 0)};
+			}
+
+			@Override
+			Boolean decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 1);
+				if (data[0] == 0)
+					return false;
+				if (data[0] == 1)
+					return true;
+				throw new StreamCorruptedException("Invalid boolean value " + data[0]);
+			}
+		});
+		codecs.put("string", new ValueCodec<String>() {
+			@Override
+			byte[] encode(String value) {
+				byte[] string = value.getBytes(StandardCharsets.UTF_8);
+				// The length is written like Yggdrasil's unsigned ints: two bytes with the highest bit set if it fits, four otherwise
+				int offset = string.length <= 0x7FFF ? 2 : 4;
+				byte[] data = new byte[offset + string.length];
+				writeLong(data, offset == 2 ? 0x8000 | string.length : string.length, offset);
+				System.arraycopy(string, 0, data, offset, string.length);
+				return data;
+			}
+
+			@Override
+			String decode(byte[] data) throws StreamCorruptedException {
+				checkLength(data, 2);
+				int offset = (data[0] & 0x80) != 0 ? 2 : 4;
+				checkLength(data, offset);
+				int length = (int) readLong(data, offset) & (offset == 2 ? 0x7FFF : -1);
+				if (length < 0)
+					throw new StreamCorruptedException("Invalid string length " + length);
+				checkLength(data, offset + length);
+				return new String(data, offset, length, StandardCharsets.UTF_8);
+			}
+		});
+	}
+
+	/**
+	 * @param codeName The code name of a class info
+	 * @return The codec for values of the class info, or null if they must be serialized using Yggdrasil
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static <T> ValueCodec<T> getCodec(String codeName) {
+		return (ValueCodec<T>) codecs.get(codeName);
+	}
+
+	private static void checkLength(byte[] data, int length) throws StreamCorruptedException {
+		if (data.length < length)
+			throw new StreamCorruptedException("Expected " + length + " bytes, but only got " + data.length);
+	}
+
+	/**
+	 * Writes the lowest bytes of the given value in big-endian order, like Yggdrasil does
+	 */
+	private static void writeLong(byte[] data, long value, int bytes) {
+		for (int i = 0; i < bytes; i++)
+			data[i] = (byte) (value >>> (8 * (bytes - 1 - i)));
+	}
+
+	private static long readLong(byte[] data, int bytes) {
+		long value = 0;
+		for (int i = 0; i < bytes; i++)
+			value = value << 8 | data[i] & 0xFF;
+		return value;
+	}
+
+}
@@ -121,6 +121,12 @@ public class StructFunction extends Structure {
 		VALIDATE_FUNCTIONS.set(true);
 	}
 
+	@Override
+	public boolean isParallelLoadable() {
+		// signatures are registered in preLoad, so loading only parses the body
+		return true;
+	}
+
 	@Override
 	public Priority getPriority() {
 		return PRIORITY;
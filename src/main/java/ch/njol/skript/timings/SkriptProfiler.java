@@ -0,0 +1,423 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.timings;
+
+import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerItem;
+import com.sun.management.ThreadMXBean;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.script.Script;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counting profiler for script execution, controlled by {@code /skript profile}.
+ * <p>
+ * While enabled, {@link TriggerItem#walk(TriggerItem, org.bukkit.event.Event)} reports every trigger and every item it runs here.
+ * Calls, total time, self time and (where the JVM supports it) allocated bytes are recorded per trigger,
+ * per line and per syntax element class, and self time is additionally recorded per call path,
+ * which can be written in the collapsed-stack format used by flame graph tools.
+ * <p>
+ * When disabled, the only cost is a single volatile read per walk.
+ */
+public final class SkriptProfiler {
+
+	private SkriptProfiler() {}
+
+	@Nullable
+	private static final ThreadMXBean ALLOCATIONS = getAllocationBean();
+
+	@Nullable
+	private static ThreadMXBean getAllocationBean() {
+		try {
+			java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			if (!(threadBean instanceof ThreadMXBean))
+				return null;
+			ThreadMXBean bean = (ThreadMXBean) threadBean;
+			if (!bean.isThreadAllocatedMemorySupported())
+				return null;
+			if (!bean.isThreadAllocatedMemoryEnabled())
+				bean.setThreadAllocatedMemoryEnabled(true);
+			return bean;
+		} catch (Throwable ignored) { // not a HotSpot-like JVM
+			return null;
+		}
+	}
+
+	private static volatile boolean enabled;
+
+	private static volatile Session session = new Session();
+
+	private static final ThreadLocal<Frame> currentFrame = new ThreadLocal<>();
+
+	/**
+	 * @return Whether the profiler is currently recording.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return Whether allocated bytes are recorded on this JVM.
+	 */
+	public static boolean isTrackingAllocations() {
+		return ALLOCATIONS != null;
+	}
+
+	/**
+	 * Discards all recorded data and starts recording.
+	 */
+	public static void start() {
+		session = new Session();
+		enabled = true;
+	}
+
+	/**
+	 * Stops recording. The recorded data is kept until the next {@link #start()}.
+	 */
+	public static void stop() {
+		if (enabled) {
+			enabled = false;
+			session.end = System.nanoTime();
+		}
+	}
+
+	/**
+	 * @return How long the current or last profiling session has been recording, in nanoseconds.
+	 */
+	public static long getDuration() {
+		Session session = SkriptProfiler.session;
+		return (enabled ? System.nanoTime() : session.end) - session.start;
+	}
+
+	/*
+	 * Hooks
+	 */
+
+	/**
+	 * Called when a trigger starts or resumes (e.g. after a delay) executing.
+	 * Only call this if {@link #isEnabled()}.
+	 *
+	 * @param trigger The trigger being executed, or null for stand-alone items like effect commands.
+	 * @param call Whether this is a new call of the trigger, or just a continuation of an earlier one.
+	 * @return The frame to pass to {@link #exit(Frame)}, or null if nothing has to be recorded.
+	 */
+	@Nullable
+	public static Frame enter(@Nullable Trigger trigger, boolean call) {
+		if (trigger == null)
+			return null;
+		Session session = SkriptProfiler.session;
+		Stats stats = session.triggers.computeIfAbsent(trigger, t -> new Stats());
+		if (call)
+			stats.calls.increment();
+		return push(session, trigger, stats);
+	}
+
+	/**
+	 * Called before a single item is walked.
+	 * Only call this if {@link #isEnabled()}.
+	 *
+	 * @return The frame to pass to {@link #exit(Frame)}.
+	 */
+	public static Frame enter(TriggerItem item) {
+		Session session = SkriptProfiler.session;
+		Stats stats = session.items.computeIfAbsent(item, i -> new Stats());
+		stats.calls.increment();
+		return push(session, item, stats);
+	}
+
+	/**
+	 * Finishes a frame returned by one of the enter methods. Frames must be exited in reverse order of entering.
+	 */
+	public static void exit(@Nullable Frame frame) {
+		if (frame == null)
+			return;
+		long time = System.nanoTime() - frame.start;
+		long allocated = frame.startAllocated == -1 ? 0 : Math.max(0, allocatedBytes() - frame.startAllocated);
+
+		frame.stats.totalTime.add(time);
+		frame.stats.selfTime.add(time - frame.childTime);
+		frame.stats.allocated.add(allocated);
+		frame.stats.selfAllocated.add(allocated - frame.childAllocated);
+		frame.node.selfTime.add(time - frame.childTime);
+
+		Frame parent = frame.parent;
+		if (parent != null) {
+			parent.childTime += time;
+			parent.childAllocated += allocated;
+		}
+		currentFrame.set(parent);
+	}
+
+	private static Frame push(Session session, Object key, Stats stats) {
+		Frame parent = currentFrame.get();
+		CallNode parentNode = parent == null || parent.session != session ? session.root : parent.node;
+		Frame frame = new Frame(session, parent, parentNode.child(key), stats);
+		currentFrame.set(frame);
+		return frame;
+	}
+
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ALLOCATIONS;
+		return bean == null ? -1 : bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * A single active trigger or item on a thread's profiling stack.
+	 */
+	public static final class Frame {
+
+		private final Session session;
+		@Nullable
+		private final Frame parent;
+		private final CallNode node;
+		private final Stats stats;
+		private final long start;
+		private final long startAllocated;
+		private long childTime, childAllocated;
+
+		private Frame(Session session, @Nullable Frame parent, CallNode node, Stats stats) {
+			this.session = session;
+			this.parent = parent;
+			this.node = node;
+			this.stats = stats;
+			this.startAllocated = allocatedBytes();
+			this.start = System.nanoTime();
+		}
+
+	}
+
+	private static final class Session {
+
+		private final long start = System.nanoTime();
+		private long end = start;
+
+		private final Map<Trigger, Stats> triggers = new ConcurrentHashMap<>();
+		private final Map<TriggerItem, Stats> items = new ConcurrentHashMap<>();
+		private final CallNode root = new CallNode(null);
+
+	}
+
+	private static final class Stats {
+
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder totalTime = new LongAdder();
+		private final LongAdder selfTime = new LongAdder();
+		private final LongAdder allocated = new LongAdder();
+		private final LongAdder selfAllocated = new LongAdder();
+
+	}
+
+	private static final class CallNode {
+
+		@Nullable
+		private final Object key;
+		private final LongAdder selfTime = new LongAdder();
+		private final Map<Object, CallNode> children = new ConcurrentHashMap<>();
+
+		private CallNode(@Nullable Object key) {
+			this.key = key;
+		}
+
+		private CallNode child(Object key) {
+			return children.computeIfAbsent(key, CallNode::new);
+		}
+
+	}
+
+	/*
+	 * Reports
+	 */
+
+	/**
+	 * A summary of one recorded trigger, line or syntax element class.
+	 */
+	public static final class Entry {
+
+		private final String name;
+		private final long calls, totalTime, selfTime, allocated, selfAllocated;
+
+		private Entry(String name, long calls, long totalTime, long selfTime, long allocated, long selfAllocated) {
+			this.name = name;
+			this.calls = calls;
+			this.totalTime = totalTime;
+			this.selfTime = selfTime;
+			this.allocated = allocated;
+			this.selfAllocated = selfAllocated;
+		}
+
+		private Entry(String name, Stats stats) {
+			this(name, stats.calls.sum(), stats.totalTime.sum(), stats.selfTime.sum(), stats.allocated.sum(), stats.selfAllocated.sum());
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		/**
+		 * @return The time spent in this entry including everything it called, in nanoseconds.
+		 */
+		public long getTotalTime() {
+			return totalTime;
+		}
+
+		/**
+		 * @return The time spent in this entry excluding nested triggers and items, in nanoseconds.
+		 */
+		public long getSelfTime() {
+			return selfTime;
+		}
+
+		/**
+		 * @return The bytes allocated by this entry including everything it called, or 0 if allocations are not tracked.
+		 */
+		public long getAllocated() {
+			return allocated;
+		}
+
+		public long getSelfAllocated() {
+			return selfAllocated;
+		}
+
+	}
+
+	private static final Comparator<Entry> BY_TOTAL_TIME = Comparator.comparingLong(Entry::getTotalTime).reversed();
+
+	/**
+	 * @return The recorded triggers, most expensive first.
+	 */
+	public static List<Entry> getTriggers() {
+		List<Entry> entries = new ArrayList<>();
+		session.triggers.forEach((trigger, stats) -> entries.add(new Entry(getLabel(trigger), stats)));
+		entries.sort(BY_TOTAL_TIME);
+		return entries;
+	}
+
+	/**
+	 * @return The recorded lines, most expensive first.
+	 */
+	public static List<Entry> getLines() {
+		List<Entry> entries = new ArrayList<>();
+		session.items.forEach((item, stats) -> {
+			Trigger trigger = item.getTrigger();
+			String name = (trigger == null ? "<unknown>" : getScriptName(trigger)) + " " + getLabel(item);
+			entries.add(new Entry(name, stats));
+		});
+		entries.sort(BY_TOTAL_TIME);
+		return entries;
+	}
+
+	/**
+	 * @return The recorded syntax element classes, most expensive first.
+	 */
+	public static List<Entry> getElements() {
+		Map<Class<?>, long[]> totals = new HashMap<>();
+		session.items.forEach((item, stats) -> {
+			long[] sums = totals.computeIfAbsent(item.getClass(), c -> new long[5]);
+			sums[0] += stats.calls.sum();
+			sums[1] += stats.totalTime.sum();
+			sums[2] += stats.selfTime.sum();
+			sums[3] += stats.allocated.sum();
+			sums[4] += stats.selfAllocated.sum();
+		});
+		List<Entry> entries = new ArrayList<>();
+		totals.forEach((type, sums) -> entries.add(new Entry(getClassName(type), sums[0], sums[1], sums[2], sums[3], sums[4])));
+		entries.sort(BY_TOTAL_TIME);
+		return entries;
+	}
+
+	/**
+	 * Writes the self time of every recorded call path in the collapsed-stack format
+	 * ({@code frame;frame;frame nanoseconds}, one path per line), as read by e.g. flamegraph.pl and speedscope.
+	 */
+	public static void writeCollapsedStacks(Writer writer) throws IOException {
+		for (CallNode child : session.root.children.values())
+			writeCollapsedStacks(writer, child, "");
+	}
+
+	private static void writeCollapsedStacks(Writer writer, CallNode node, String prefix) throws IOException {
+		Object key = node.key;
+		String label = key instanceof Trigger ? getLabel((Trigger) key) : getLabel((TriggerItem) key);
+		String path = prefix + label.replace(';', ',').replace('\n', ' ');
+		long selfTime = node.selfTime.sum();
+		if (selfTime > 0)
+			writer.write(path + " " + selfTime + "\n");
+		for (CallNode child : node.children.values())
+			writeCollapsedStacks(writer, child, path + ";");
+	}
+
+	/**
+	 * Writes a human-readable summary of all recorded triggers, lines and syntax element classes.
+	 */
+	public static void writeSummary(Writer writer) throws IOException {
+		writer.write(String.format(Locale.ENGLISH, "Skript profile: %.3f s recorded%s%n",
+			getDuration() / 1e9, isTrackingAllocations() ? "" : ", allocations not tracked by this JVM"));
+		writeTable(writer, "Triggers", getTriggers());
+		writeTable(writer, "Lines", getLines());
+		writeTable(writer, "Syntax elements", getElements());
+	}
+
+	private static void writeTable(Writer writer, String title, List<Entry> entries) throws IOException {
+		writer.write(String.format(Locale.ENGLISH, "%n== %s ==%n%12s %12s %12s %12s %14s %14s  %s%n",
+			title, "calls", "total ms", "self ms", "avg µs", "alloc KiB", "self alloc KiB", "name"));
+		for (Entry entry : entries) {
+			writer.write(String.format(Locale.ENGLISH, "%12d %12.3f %12.3f %12.3f %14d %14d  %s%n",
+				entry.calls,
+				entry.totalTime / 1e6,
+				entry.selfTime / 1e6,
+				entry.calls == 0 ? 0 : entry.totalTime / 1e3 / entry.calls,
+				entry.allocated / 1024,
+				entry.selfAllocated / 1024,
+				entry.name));
+		}
+	}
+
+	private static String getScriptName(Trigger trigger) {
+		Script script = trigger.getScript();
+		return script == null ? "<unknown>" : script.getConfig().getFileName();
+	}
+
+	private static String getLabel(Trigger trigger) {
+		return getScriptName(trigger) + ": " + trigger.getDebugLabel() + " (line " + trigger.getLineNumber() + ")";
+	}
+
+	private static String getLabel(TriggerItem item) {
+		return "line " + item.getLineNumber() + " " + getClassName(item.getClass());
+	}
+
+	private static String getClassName(Class<?> type) {
+		String name = type.getSimpleName();
+		return name.isEmpty() ? type.getName() : name;
+	}
+
+}
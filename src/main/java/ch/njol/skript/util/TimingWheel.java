@@ -0,0 +1,268 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.util;
+
+import ch.njol.skript.Skript;
+import ch.njol.util.Closeable;
+import org.bukkit.Bukkit;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.script.Script;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * A hashed timing wheel that runs delayed tasks on the main thread.
+ * <p>
+ * Instead of scheduling a Bukkit task for each delayed task, all tasks are put in the bucket of the tick they are due in,
+ * and a single repeating {@link Task} runs the due tasks of each tick in bulk.
+ * The wheel has {@value #WHEEL_SIZE} buckets, tasks that are due more than that many ticks later
+ * share a bucket with earlier tasks and are only run once their tick is reached.
+ * <p>
+ * The wheel needs the server's tick counter, which only Paper exposes. Counting its own ticks instead would let a task
+ * scheduled earlier in a tick than the wheel's own task run too early, so on other servers each task is scheduled
+ * with {@link org.bukkit.scheduler.BukkitScheduler#scheduleSyncDelayedTask(org.bukkit.plugin.Plugin, Runnable, long)}.
+ * <p>
+ * This class is thread-safe, but tasks are always run on the main thread.
+ */
+public final class TimingWheel implements Closeable {
+
+	/**
+	 * The amount of buckets, must be a power of two.
+	 */
+	private static final int WHEEL_SIZE = 512;
+
+	/**
+	 * Whether the server's tick counter is available (Paper),
+	 * which prevents tasks from running early if they're scheduled before the wheel was advanced in the current tick.
+	 * If it isn't, tasks are scheduled with Bukkit's scheduler instead of the wheel.
+	 */
+	private static final boolean SERVER_TICK = Skript.methodExists(Bukkit.class, "getCurrentTick");
+
+	@Nullable
+	private static TimingWheel instance;
+
+	/**
+	 * @return The timing wheel shared by everything in Skript.
+	 */
+	public static synchronized TimingWheel get() {
+		TimingWheel instance = TimingWheel.instance;
+		if (instance == null) {
+			TimingWheel.instance = instance = new TimingWheel();
+			Skript.closeOnDisable(instance);
+		}
+		return instance;
+	}
+
+	private static final class Entry {
+
+		private final long tick;
+		@Nullable
+		private final Script script;
+		private final Runnable runnable;
+
+		private Entry(long tick, @Nullable Script script, Runnable runnable) {
+			this.tick = tick;
+			this.script = script;
+			this.runnable = runnable;
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private final List<Entry>[] buckets = new List[WHEEL_SIZE];
+
+	/**
+	 * The last tick whose tasks have been run.
+	 */
+	private long tick;
+
+	/**
+	 * Whether this wheel has been {@link #close() closed}, which cancels tasks scheduled with Bukkit's scheduler.
+	 */
+	private boolean closed;
+
+	private int pending;
+
+	private final Map<Script, Integer> pendingPerScript = new HashMap<>();
+
+	@Nullable
+	private Task task;
+
+	private TimingWheel() {
+		tick = SERVER_TICK ? Bukkit.getCurrentTick() : 0;
+	}
+
+	private void addPending(@Nullable Script script) {
+		assert Thread.holdsLock(this);
+		pending++;
+		if (script != null)
+			pendingPerScript.merge(script, 1, Integer::sum);
+	}
+
+	private void removePending(@Nullable Script script) {
+		assert Thread.holdsLock(this);
+		pending--;
+		if (script != null)
+			pendingPerScript.computeIfPresent(script, (s, count) -> count == 1 ? null : count - 1);
+	}
+
+	/**
+	 * Schedules a task to be run on the main thread after the given delay.
+	 *
+	 * @param script the script the task belongs to, used for {@link #getPendingCount(Script)}.
+	 * @param delay the delay in ticks, at least one tick.
+	 * @param runnable the task.
+	 */
+	public synchronized void schedule(@Nullable Script script, long delay, Runnable runnable) {
+		if (!SERVER_TICK) {
+			addPending(script);
+			Bukkit.getScheduler().scheduleSyncDelayedTask(Skript.getInstance(), () -> {
+				synchronized (this) {
+					if (closed)
+						return;
+					removePending(script);
+				}
+				run(runnable);
+			}, Math.max(delay, 1));
+			return;
+		}
+
+		Entry entry = new Entry(Math.max(tick, Bukkit.getCurrentTick()) + Math.max(delay, 1), script, runnable);
+
+		int index = (int) (entry.tick & (WHEEL_SIZE - 1));
+		List<Entry> bucket = buckets[index];
+		if (bucket == null)
+			buckets[index] = bucket = new ArrayList<>();
+		bucket.add(entry);
+		addPending(script);
+
+		if (task == null) {
+			task = new Task(Skript.getInstance(), 1, 1) {
+				@Override
+				public void run() {
+					advance();
+				}
+			};
+		}
+	}
+
+	/**
+	 * @return The amount of tasks that have not been run yet.
+	 */
+	public synchronized int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * @param script the script.
+	 * @return The amount of tasks of the given script that have not been run yet.
+	 */
+	public synchronized int getPendingCount(Script script) {
+		return pendingPerScript.getOrDefault(script, 0);
+	}
+
+	/**
+	 * @return The amount of tasks that have not been run yet of each script that has any.
+	 */
+	public synchronized Map<Script, Integer> getPendingCounts() {
+		return new HashMap<>(pendingPerScript);
+	}
+
+	/**
+	 * Runs the tasks of all ticks that have passed since the last call.
+	 */
+	private void advance() {
+		assert SERVER_TICK;
+		long target = Bukkit.getCurrentTick();
+		while (true) {
+			List<Entry> due;
+			synchronized (this) {
+				if (tick >= target)
+					return;
+				tick++;
+				due = pollDue();
+			}
+			// Tasks are run without holding the lock, as they may schedule new tasks
+			for (Entry entry : due)
+				run(entry.runnable);
+		}
+	}
+
+	private static void run(Runnable runnable) {
+		try {
+			runnable.run();
+		} catch (Exception e) {
+			Skript.getInstance().getLogger().log(Level.WARNING, "A delayed task generated an exception", e);
+		}
+	}
+
+	/**
+	 * Removes the tasks that are due in the current {@link #tick} from their bucket.
+	 *
+	 * @return the due tasks, in the order they were scheduled.
+	 */
+	private List<Entry> pollDue() {
+		assert Thread.holdsLock(this);
+		int index = (int) (tick & (WHEEL_SIZE - 1));
+		List<Entry> bucket = buckets[index];
+		if (bucket == null || bucket.isEmpty())
+			return new ArrayList<>(0);
+
+		List<Entry> due = new ArrayList<>();
+		List<Entry> remaining = null;
+		for (Entry entry : bucket) {
+			if (entry.tick <= tick) {
+				due.add(entry);
+				removePending(entry.script);
+			} else {
+				if (remaining == null)
+					remaining = new ArrayList<>();
+				remaining.add(entry);
+			}
+		}
+		// Only tasks that are due in a later rotation of the wheel are kept
+		buckets[index] = remaining;
+		return due;
+	}
+
+	/**
+	 * Cancels all pending tasks.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		Task task = this.task;
+		if (task != null)
+			task.cancel();
+		this.task = null;
+		for (int i = 0; i < WHEEL_SIZE; i++)
+			buckets[i] = null;
+		pending = 0;
+		pendingPerScript.clear();
+		synchronized (TimingWheel.class) {
+			if (instance == this)
+				instance = null;
+		}
+	}
+
+}
@@ -42,9 +42,11 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -80,8 +82,7 @@ public class FlatFileStorage extends VariablesStorage {
 	 * to the {@link #file}.
 	 * <p>
 	 * A Lock on this object must be acquired after connectionLock
-	 * if that lock is used
-	 * (and thus also after {@link Variables#getReadLock()}).
+	 * if that lock is used.
 	 */
 	private final NotifyingReference<PrintWriter> changesWriter = new NotifyingReference<>();
 
@@ -395,69 +396,66 @@ public class FlatFileStorage extends VariablesStorage {
 				backupTask.cancel();
 		}
 
-		try {
-			// Acquire read lock
-			Variables.getReadLock().lock();
+		synchronized (connectionLock) {
+			try {
+				if (file == null) {
+					// This storage requires a file, so file should be nonnull
+					assert false : this;
+					return;
+				}
+
+				disconnect();
 
-			synchronized (connectionLock) {
-				try {
-					if (file == null) {
-						// This storage requires a file, so file should be nonnull
-						assert false : this;
+				if (loadError) {
+					// There was an error while loading the CSV file, create a backup of it
+					try {
+						File backup = FileUtils.backup(file);
+						Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
+						loadError = false;
+					} catch (IOException e) {
+						Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
+						Skript.error("No variables are saved!");
 						return;
 					}
+				}
 
-					disconnect();
-
-					if (loadError) {
-						// There was an error while loading the CSV file, create a backup of it
+				// Write the variables to a temporary file, giving less problems if saving fails
+				//  (if saving fails during writing to the actual file,
+				//  the data in the actual file may be partially lost)
+				File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+
+				try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
+					pw.println("# === Skript's variable storage ===");
+					pw.println("# Please do not modify this file manually!");
+					pw.println("#");
+					pw.println("# version: " + Skript.getVersion());
+					pw.println();
+					// Lock each list root separately, so only changes to the variables being written have to wait
+					Map<String, Object> variables = Variables.getVariables();
+					for (String rootName : variables.keySet()) {
+						Lock lock = Variables.getLock(rootName);
+						lock.lock();
 						try {
-							File backup = FileUtils.backup(file);
-							Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
-							loadError = false;
-						} catch (IOException e) {
-							Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
-							Skript.error("No variables are saved!");
-							return;
+							Object rootNode = variables.get(rootName);
+							if (rootNode != null)
+								save(pw, "", rootName, rootNode);
+						} finally {
+							lock.unlock();
 						}
 					}
-
-					// Write the variables to a temporary file, giving less problems if saving fails
-					//  (if saving fails during writing to the actual file,
-					//  the data in the actual file may be partially lost)
-					File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
-
-					try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
-						pw.println("# === Skript's variable storage ===");
-						pw.println("# Please do not modify this file manually!");
-						pw.println("#");
-						pw.println("# version: " + Skript.getVersion());
-						pw.println();
-						save(pw, "", Variables.getVariables());
-						pw.println();
-						pw.flush();
-						pw.close();
-						FileUtils.move(tempFile, file, true);
-					} catch (IOException e) {
-						Skript.error("Unable to make a final save of the database '" + databaseName +
-								"' (no variables are lost): " + ExceptionUtils.toString(e));
-						// FIXME happens at random - check locks/threads
-					}
-				} finally {
-					// Reconnect if needed
-					if (!finalSave) {
-						connect();
-					}
+					pw.println();
+					pw.flush();
+					pw.close();
+					FileUtils.move(tempFile, file, true);
+				} catch (IOException e) {
+					Skript.error("Unable to make a final save of the database '" + databaseName +
+							"' (no variables are lost): " + ExceptionUtils.toString(e));
+					// FIXME happens at random - check locks/threads
 				}
-			}
-		} finally {
-			Variables.getReadLock().unlock();
-			boolean gotWriteLock = Variables.variablesLock.writeLock().tryLock();
-			if (gotWriteLock) { // Only process queue now if it doesn't require us to wait
-				try {
-					Variables.processChangeQueue();
-				} finally {
-					Variables.variablesLock.writeLock().unlock();
+			} finally {
+				// Reconnect if needed
+				if (!finalSave) {
+					connect();
 				}
 			}
 		}
@@ -472,43 +470,51 @@ public class FlatFileStorage extends VariablesStorage {
 	 * @param parent The parent's name with {@link Variable#SEPARATOR} at the end.
 	 * @param map the variables map.
 	 */
-	@SuppressWarnings("unchecked")
 	private void save(PrintWriter pw, String parent, TreeMap<String, Object> map) {
 		// Iterate over all children
 		for (Entry<String, Object> childEntry : map.entrySet()) {
 			Object childNode = childEntry.getValue();
-			String childKey = childEntry.getKey();
-
-			if (childNode == null)
-				continue; // Leaf node
-
-			if (childNode instanceof TreeMap) {
-				// TreeMap found, recurse
-				save(pw, parent + childKey + Variable.SEPARATOR, (TreeMap<String, Object>) childNode);
-			} else {
-				// Remove variable separator if needed
-				String name = childKey == null ? parent.substring(0, parent.length() - Variable.SEPARATOR.length()) : parent + childKey;
-
-				try {
-					// Loop over storages to make sure this variable is ours to store
-					for (VariablesStorage storage : Variables.STORAGES) {
-						if (storage.accept(name)) {
-							if (storage == this) {
-								// Serialize the value
-								SerializedVariable.Value serializedValue = Classes.serialize(childNode);
-
-								// Write the CSV line
-								if (serializedValue != null)
-									writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
-							}
-
-							break;
+			if (childNode != null) // Leaf node
+				save(pw, parent, childEntry.getKey(), childNode);
+		}
+	}
+
+	/**
+	 * Saves a single node of the variables map, recursing into it if it's a list.
+	 *
+	 * @param pw the print writer to write the CSV lines too.
+	 * @param parent The parent's name with {@link Variable#SEPARATOR} at the end.
+	 * @param childKey the key of the node in its parent, {@code null} for the value of the parent itself.
+	 * @param childNode the node.
+	 */
+	@SuppressWarnings("unchecked")
+	private void save(PrintWriter pw, String parent, @Nullable String childKey, Object childNode) {
+		if (childNode instanceof TreeMap) {
+			// TreeMap found, recurse
+			save(pw, parent + childKey + Variable.SEPARATOR, (TreeMap<String, Object>) childNode);
+		} else {
+			// Remove variable separator if needed
+			String name = childKey == null ? parent.substring(0, parent.length() - Variable.SEPARATOR.length()) : parent + childKey;
+
+			try {
+				// Loop over storages to make sure this variable is ours to store
+				for (VariablesStorage storage : Variables.STORAGES) {
+					if (storage.accept(name)) {
+						if (storage == this) {
+							// Serialize the value
+							SerializedVariable.Value serializedValue = Classes.serialize(childNode);
+
+							// Write the CSV line
+							if (serializedValue != null)
+								writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
 						}
+
+						break;
 					}
-				} catch (Exception ex) {
-					//noinspection ThrowableNotThrown
-					Skript.exception(ex, "Error saving variable named " + name);
 				}
+			} catch (Exception ex) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(ex, "Error saving variable named " + name);
 			}
 		}
 	}
@@ -0,0 +1,117 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.lang.Variable;
+import ch.njol.util.Pair;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link VariablesMap} used for global variables, which may be accessed from any thread.
+ * <p>
+ * Reading a non-list variable never locks. Every other operation locks the stripe of the variable's list root,
+ * i.e. the part of its name before the first {@link Variable#SEPARATOR}. As all branches of a list
+ * share their root, changes to unrelated variables don't have to wait for each other.
+ */
+final class GlobalVariablesMap extends VariablesMap {
+
+	/**
+	 * The amount of stripes, must be a power of two.
+	 */
+	private static final int STRIPE_COUNT = 64;
+
+	private final Lock[] stripes = new Lock[STRIPE_COUNT];
+
+	GlobalVariablesMap() {
+		super(new ConcurrentHashMap<>(), new ConcurrentSkipListMap<>());
+		for (int i = 0; i < STRIPE_COUNT; i++)
+			stripes[i] = new ReentrantLock();
+	}
+
+	/**
+	 * Gets the lock guarding the list root of the given variable.
+	 * <p>
+	 * Holding this lock guarantees that the variable,
+	 * and all other variables with the same list root, will not change.
+	 *
+	 * @param name the name of the variable, possibly a list variable.
+	 * @return the lock of the variable's list root.
+	 */
+	Lock getLock(String name) {
+		int end = name.indexOf(Variable.SEPARATOR);
+		if (end == -1)
+			end = name.length();
+
+		// Hash the list root without creating a substring
+		int hash = 0;
+		for (int i = 0; i < end; i++)
+			hash = 31 * hash + name.charAt(i);
+		hash ^= hash >>> 16;
+
+		return stripes[hash & (STRIPE_COUNT - 1)];
+	}
+
+	@Override
+	@Nullable
+	Object getVariable(String name) {
+		if (!name.endsWith("*")) {
+			// Point reads are served by the concurrent hash map without locking
+			return hashMap.get(name);
+		}
+
+		Lock lock = getLock(name);
+		lock.lock();
+		try {
+			return super.getVariable(name);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	List<Pair<String, Object>> getListEntries(String name) {
+		// Holding the lock while copying guarantees a consistent snapshot, even if the list is changed by another thread
+		Lock lock = getLock(name);
+		lock.lock();
+		try {
+			return super.getListEntries(name);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	void setVariable(String name, @Nullable Object value) {
+		Lock lock = getLock(name);
+		lock.lock();
+		try {
+			super.setVariable(name, value);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
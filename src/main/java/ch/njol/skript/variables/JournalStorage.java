@@ -0,0 +1,722 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.ExceptionUtils;
+import ch.njol.skript.util.FileUtils;
+import ch.njol.skript.util.Task;
+import ch.njol.skript.util.Timespan;
+import ch.njol.skript.util.Version;
+import ch.njol.skript.variables.SerializedVariable.Value;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A variable storage that appends every change to a binary journal file.
+ * <p>
+ * Each change is written as a single length-prefixed record with a CRC32 checksum,
+ * so saving a variable never rewrites the whole file, and a record that was only partially written
+ * (e.g. because the server crashed) is detected and discarded when loading.
+ * Superseded records are removed by a background compaction every once in a while.
+ * <p>
+ * A CSV file created by {@link FlatFileStorage} is converted to this format
+ * the first time it is loaded by this storage. This conversion is one-way.
+ */
+public class JournalStorage extends VariablesStorage {
+
+	/**
+	 * The magic number at the start of every journal file, {@code SKJL} in ASCII.
+	 */
+	private static final int MAGIC = 0x534B4A4C;
+
+	/**
+	 * The version of the journal format.
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The length of the file header: the {@link #MAGIC magic number} and the {@link #FORMAT_VERSION format version}.
+	 */
+	private static final int HEADER_LENGTH = 8;
+
+	/**
+	 * The length of a record header: the payload length and the payload's CRC32 checksum.
+	 */
+	private static final int RECORD_HEADER_LENGTH = 8;
+
+	/**
+	 * The type length that marks a record as a deletion.
+	 */
+	private static final int DELETED = -1;
+
+	/**
+	 * The largest part of the file that is memory-mapped at once while loading.
+	 */
+	private static final long MAX_MAPPED_LENGTH = Integer.MAX_VALUE;
+
+	/**
+	 * The delay and period of the compaction task, in ticks.
+	 */
+	private static final long COMPACTION_TASK_PERIOD = 5 * 60 * 20;
+
+	/**
+	 * The minimum amount of records written since the last compaction
+	 * for a new compaction to happen.
+	 * <p>
+	 * A compaction also requires that at least as many records have been written
+	 * as there were left after the last compaction,
+	 * so at most about half of the journal is superseded records.
+	 */
+	private static final int REQUIRED_RECORDS_FOR_COMPACTION = 1000;
+
+	/**
+	 * The stream that records are appended to, or {@code null} if disconnected.
+	 * <p>
+	 * Only accessed while holding {@link #connectionLock}.
+	 */
+	@Nullable
+	private DataOutputStream writer;
+
+	/**
+	 * The amount of records written since the last compaction.
+	 * <p>
+	 * Only accessed while holding {@link #connectionLock}.
+	 */
+	private int writtenRecords;
+
+	/**
+	 * The amount of records that were left after the last compaction (or load).
+	 */
+	private volatile int compactedRecords;
+
+	/**
+	 * Held during a compaction, and by anything that needs the journal to be in a single file.
+	 * <p>
+	 * Must be locked before {@link #connectionLock}.
+	 */
+	private final ReentrantLock compactionLock = new ReentrantLock();
+
+	/**
+	 * The compaction task.
+	 */
+	@Nullable
+	private Task compactionTask;
+
+	/**
+	 * Create a new journal storage of the given name.
+	 *
+	 * @param name the name.
+	 */
+	JournalStorage(String name) {
+		super(name);
+	}
+
+	/**
+	 * The file that the journal is moved to while it's being compacted.
+	 * <p>
+	 * Changes made during a compaction are written to a new journal file,
+	 * so if this file exists while loading, it holds the older records.
+	 */
+	private File getSnapshotFile() {
+		assert file != null;
+		return new File(file.getParentFile(), file.getName() + ".compacting");
+	}
+
+	/**
+	 * Loads the variables in the journal, converting a CSV file if needed.
+	 * <p>
+	 * Doesn't lock the connection, as required by
+	 * {@link Variables#variableLoaded(String, Object, VariablesStorage)}.
+	 */
+	@Override
+	protected boolean load_i(SectionNode sectionNode) {
+		SkriptLogger.setNode(null);
+
+		File file = this.file;
+		if (file == null) {
+			assert false : this;
+			return false;
+		}
+
+		Map<String, Value> records = new HashMap<>();
+		// Whether the file has to be rewritten before appending to it
+		boolean rewrite = false;
+		try {
+			File snapshot = getSnapshotFile();
+			if (snapshot.exists()) {
+				// The server stopped during a compaction, the snapshot holds the older records
+				Skript.warning("Finishing an interrupted compaction of " + file.getName());
+				if (readJournal(snapshot, records) != snapshot.length())
+					Skript.warning("The end of " + snapshot.getName() + " was corrupted and has been discarded.");
+				rewrite = true;
+			}
+
+			if (file.length() == 0) {
+				// A new database, write the header
+				rewrite = true;
+			} else if (isJournal(file)) {
+				long validLength = readJournal(file, records);
+				if (validLength != file.length()) {
+					File backup = FileUtils.backup(file);
+					Skript.warning("The end of " + file.getName() + " was corrupted (e.g. because the server crashed while saving) " +
+						"and has been discarded. A backup of the damaged file has been created as " + backup.getName());
+					rewrite = true;
+				}
+			} else {
+				Skript.info("Converting " + file.getName() + " from CSV to the journal format...");
+				if (!readCSV(file, records))
+					return false;
+				File backup = FileUtils.backup(file);
+				Skript.info("Created a backup of the CSV file as " + backup.getName());
+				rewrite = true;
+			}
+
+			if (rewrite) {
+				File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+				writeJournal(tempFile, records);
+				FileUtils.move(tempFile, file, true);
+				Files.deleteIfExists(snapshot.toPath());
+			}
+		} catch (IOException e) {
+			Skript.error("An I/O error occurred while loading the variables: " + ExceptionUtils.toString(e));
+			Skript.error("This means that some to all variables could not be loaded!");
+			return false;
+		}
+		compactedRecords = records.size();
+
+		int unsuccessfulVariableCount = 0;
+		StringBuilder invalid = new StringBuilder();
+		for (Entry<String, Value> record : records.entrySet()) {
+			Value value = record.getValue();
+			Object deserializedValue = Classes.deserialize(value.type, value.data);
+			if (deserializedValue == null) {
+				// Couldn't deserialize variable, it's kept in the journal in case it can be loaded later
+				if (invalid.length() != 0)
+					invalid.append(", ");
+				invalid.append(record.getKey());
+				unsuccessfulVariableCount++;
+				continue;
+			}
+			Variables.variableLoaded(record.getKey(), deserializedValue, this);
+		}
+
+		if (unsuccessfulVariableCount > 0) {
+			Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount == 1 ? "" : "s") +
+					" could not be loaded!");
+			Skript.error("Affected variables: " + invalid);
+		}
+
+		if (!connect())
+			return false;
+
+		compactionTask = new Task(Skript.getInstance(), COMPACTION_TASK_PERIOD, COMPACTION_TASK_PERIOD, true) {
+			@Override
+			public void run() {
+				int written;
+				synchronized (connectionLock) {
+					written = writtenRecords;
+				}
+				if (written >= REQUIRED_RECORDS_FOR_COMPACTION && written >= compactedRecords)
+					compact();
+			}
+		};
+
+		return true;
+	}
+
+	@Override
+	protected void allLoaded() {
+		// no transaction support
+	}
+
+	@Override
+	protected boolean requiresFile() {
+		return true;
+	}
+
+	@Override
+	protected File getFile(String fileName) {
+		return new File(fileName);
+	}
+
+	@Override
+	protected final boolean connect() {
+		synchronized (connectionLock) {
+			assert file != null; // file should be non-null after load
+
+			if (writer != null)
+				return true;
+
+			try {
+				writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+				return true;
+			} catch (IOException e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e);
+				return false;
+			}
+		}
+	}
+
+	@Override
+	protected final void disconnect() {
+		synchronized (connectionLock) {
+			DataOutputStream writer = this.writer;
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					Skript.error("Unable to write the last changes to the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+				}
+				this.writer = null;
+			}
+		}
+	}
+
+	@Override
+	public void startBackupTask(Timespan backupInterval) {
+		// Same as the default, but a backup must not be made while the journal is split up for a compaction
+		if (file == null || backupInterval.getTicks() == 0)
+			return;
+
+		backupTask = new Task(Skript.getInstance(), backupInterval.getTicks(), backupInterval.getTicks(), true) {
+			@Override
+			public void run() {
+				compactionLock.lock();
+				try {
+					synchronized (connectionLock) {
+						disconnect();
+						try {
+							FileUtils.backup(file);
+						} catch (IOException e) {
+							Skript.error("Automatic variables backup failed: " + e.getLocalizedMessage());
+						} finally {
+							connect();
+						}
+					}
+				} finally {
+					compactionLock.unlock();
+				}
+			}
+		};
+	}
+
+	@Override
+	public void close() {
+		if (compactionTask != null)
+			compactionTask.cancel();
+		if (backupTask != null)
+			backupTask.cancel();
+		super.close();
+		// Wait for a running compaction to finish
+		compactionLock.lock();
+		try {
+			disconnect();
+		} finally {
+			compactionLock.unlock();
+		}
+	}
+
+	@Override
+	protected boolean save(String name, @Nullable String type, @Nullable byte[] value) {
+		synchronized (connectionLock) {
+			DataOutputStream writer = this.writer;
+			if (writer == null)
+				return false;
+
+			try {
+				writeRecord(writer, name, type == null || value == null ? null : new Value(type, value));
+				// Changes that are waiting to be saved will flush the stream themselves
+				if (changesQueue.isEmpty())
+					writer.flush();
+				writtenRecords++;
+				return true;
+			} catch (IOException e) {
+				Skript.error("Unable to save the variable " + name + " to the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Removes the superseded records from the journal.
+	 * <p>
+	 * The journal is moved to the {@link #getSnapshotFile() snapshot file} and a new journal is started,
+	 * so variables can be saved while the snapshot is compacted.
+	 * Afterwards, the records saved in the meantime are appended to the compacted snapshot,
+	 * which then replaces the journal.
+	 * <p>
+	 * If the snapshot still exists because finishing the last compaction failed,
+	 * that compaction is finished instead, see {@link #mergeSnapshot(File, File, File)}.
+	 */
+	private void compact() {
+		File file = this.file;
+		assert file != null;
+		if (!compactionLock.tryLock())
+			return;
+		try {
+			File snapshot = getSnapshotFile();
+			File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+
+			synchronized (connectionLock) {
+				if (closed)
+					return;
+				if (snapshot.exists()) {
+					disconnect();
+					try {
+						compactedRecords = mergeSnapshot(snapshot, file, tempFile);
+						writtenRecords = 0;
+					} catch (IOException e) {
+						Skript.error("Unable to finish compacting the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+						Skript.error("The remaining changes will be applied when the server restarts.");
+					} finally {
+						connect();
+					}
+					return;
+				}
+				disconnect();
+				try {
+					FileUtils.move(file, snapshot, false);
+					writeJournal(file, new HashMap<>());
+					writtenRecords = 0;
+				} catch (IOException e) {
+					Skript.error("Unable to compact the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+					return;
+				} finally {
+					connect();
+				}
+			}
+
+			// The snapshot is not modified anymore, so it can be read without holding the connection lock
+			Map<String, Value> records = new HashMap<>();
+			File compacted;
+			try {
+				readJournal(snapshot, records);
+				writeJournal(tempFile, records);
+				compacted = tempFile;
+			} catch (IOException e) {
+				Skript.error("Unable to compact the database '" + databaseName + "' (no variables are lost): " + ExceptionUtils.toString(e));
+				// Restore the journal as it was
+				compacted = snapshot;
+			}
+
+			synchronized (connectionLock) {
+				disconnect();
+				try {
+					// Append the records saved during the compaction
+					try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+						 FileChannel target = FileChannel.open(compacted.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+						long position = HEADER_LENGTH;
+						long size = source.size();
+						while (position < size)
+							position += source.transferTo(position, size - position, target);
+						target.force(true);
+					}
+					FileUtils.move(compacted, file, true);
+					Files.deleteIfExists(snapshot.toPath());
+					compactedRecords = records.size() + writtenRecords;
+				} catch (IOException e) {
+					Skript.error("Unable to finish compacting the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+					Skript.error("The remaining changes will be applied when the server restarts.");
+				} finally {
+					connect();
+				}
+			}
+		} finally {
+			compactionLock.unlock();
+		}
+	}
+
+	/**
+	 * Merges the snapshot of an unfinished compaction with the journal that was started during it,
+	 * like {@link #load_i(SectionNode)} does after the server stopped during a compaction.
+	 * Afterwards, the journal contains the compacted records of both files, and the snapshot is deleted.
+	 * <p>
+	 * Neither file may be written to while this is running.
+	 *
+	 * @param snapshot the snapshot, see {@link #getSnapshotFile()}.
+	 * @param file the journal.
+	 * @param tempFile the file to write the merged journal to before it replaces the journal.
+	 * @return the amount of records in the merged journal.
+	 * @throws IOException if the files can't be read or written.
+	 */
+	static int mergeSnapshot(File snapshot, File file, File tempFile) throws IOException {
+		Map<String, Value> records = new HashMap<>();
+		// The snapshot holds the older records
+		readJournal(snapshot, records);
+		readJournal(file, records);
+		writeJournal(tempFile, records);
+		FileUtils.move(tempFile, file, true);
+		Files.deleteIfExists(snapshot.toPath());
+		return records.size();
+	}
+
+	/**
+	 * Checks whether the given file starts with the journal header.
+	 *
+	 * @param file the file.
+	 * @return whether the file is a journal.
+	 * @throws IOException if the file can't be read.
+	 */
+	private static boolean isJournal(File file) throws IOException {
+		if (file.length() < HEADER_LENGTH)
+			return false;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			while (header.hasRemaining() && channel.read(header) != -1);
+		}
+		return header.getInt(0) == MAGIC;
+	}
+
+	/**
+	 * Reads all records of the given journal into the given map,
+	 * replacing and removing earlier records of the same variables.
+	 * <p>
+	 * The file is memory-mapped and read sequentially.
+	 * Reading stops at the first record that is incomplete or whose checksum doesn't match.
+	 *
+	 * @param file the journal file.
+	 * @param records the map to read the records into.
+	 * @return the length of the valid part of the file, including the header.
+	 * @throws IOException if the file can't be read, or is from a newer format version.
+	 */
+	static long readJournal(File file, Map<String, Value> records) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_LENGTH)
+				return 0;
+
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_LENGTH);
+			if (header.getInt() != MAGIC)
+				throw new IOException(file.getName() + " is not a variable journal");
+			int version = header.getInt();
+			if (version > FORMAT_VERSION)
+				throw new IOException(file.getName() + " was created by a newer version of Skript (format version " + version + ")");
+
+			long position = HEADER_LENGTH;
+			while (position < size) {
+				long length = Math.min(size - position, MAX_MAPPED_LENGTH);
+				boolean last = position + length == size;
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, length);
+				int valid = readRecords(buffer, records);
+				position += valid;
+				// A record that doesn't fit into a part that isn't the last one is read again from the next part
+				if (valid == 0 || last && valid < length)
+					break;
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * Reads the complete and valid records from the given buffer.
+	 *
+	 * @param buffer the buffer, starting at a record.
+	 * @param records the map to read the records into.
+	 * @return the amount of bytes that were read.
+	 */
+	private static int readRecords(ByteBuffer buffer, Map<String, Value> records) {
+		int valid = 0;
+		CRC32 crc = new CRC32();
+		while (buffer.remaining() >= RECORD_HEADER_LENGTH) {
+			int length = buffer.getInt();
+			int checksum = buffer.getInt();
+			if (length < 0 || length > buffer.remaining())
+				break;
+
+			byte[] payload = new byte[length];
+			buffer.get(payload);
+			crc.reset();
+			crc.update(payload, 0, length);
+			if ((int) crc.getValue() != checksum || !readPayload(ByteBuffer.wrap(payload), records))
+				break;
+
+			valid += RECORD_HEADER_LENGTH + length;
+		}
+		return valid;
+	}
+
+	/**
+	 * Reads the variable in a record's payload into the given map.
+	 *
+	 * @param payload the payload.
+	 * @param records the map to read the record into.
+	 * @return whether the payload was well-formed.
+	 */
+	private static boolean readPayload(ByteBuffer payload, Map<String, Value> records) {
+		String name = readString(payload);
+		if (name == null || payload.remaining() < 4)
+			return false;
+		if (payload.getInt(payload.position()) == DELETED) {
+			records.remove(name);
+			return true;
+		}
+		String type = readString(payload);
+		if (type == null || payload.remaining() < 4)
+			return false;
+		int length = payload.getInt();
+		if (length != payload.remaining())
+			return false;
+		byte[] data = new byte[length];
+		payload.get(data);
+		records.put(name, new Value(type, data));
+		return true;
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 string.
+	 *
+	 * @param buffer the buffer to read from.
+	 * @return the string, or {@code null} if the buffer doesn't contain a valid string.
+	 */
+	@Nullable
+	private static String readString(ByteBuffer buffer) {
+		if (buffer.remaining() < 4)
+			return null;
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining())
+			return null;
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a record.
+	 *
+	 * @param out the stream to write to.
+	 * @param name the name of the variable.
+	 * @param value the value of the variable, or {@code null} if the variable is deleted.
+	 * @throws IOException if the record can't be written.
+	 */
+	private static void writeRecord(DataOutputStream out, String name, @Nullable Value value) throws IOException {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		byte[] typeBytes = value == null ? null : value.type.getBytes(StandardCharsets.UTF_8);
+
+		int length = 4 + nameBytes.length + 4;
+		if (value != null)
+			length += typeBytes.length + 4 + value.data.length;
+
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		payload.putInt(nameBytes.length).put(nameBytes);
+		if (value == null) {
+			payload.putInt(DELETED);
+		} else {
+			payload.putInt(typeBytes.length).put(typeBytes);
+			payload.putInt(value.data.length).put(value.data);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(payload.array(), 0, length);
+		out.writeInt(length);
+		out.writeInt((int) crc.getValue());
+		out.write(payload.array(), 0, length);
+	}
+
+	/**
+	 * Writes a new journal containing the given records.
+	 *
+	 * @param file the file to write to, will be replaced if it exists.
+	 * @param records the records.
+	 * @throws IOException if the journal can't be written.
+	 */
+	static void writeJournal(File file, Map<String, Value> records) throws IOException {
+		try (FileOutputStream fos = new FileOutputStream(file)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			for (Entry<String, Value> record : records.entrySet())
+				writeRecord(out, record.getKey(), record.getValue());
+			out.flush();
+			fos.getFD().sync();
+		}
+	}
+
+	/**
+	 * Reads the variables of a CSV file created by {@link FlatFileStorage} into the given map.
+	 *
+	 * @param file the CSV file.
+	 * @param records the map to read the records into.
+	 * @return whether the file could be converted.
+	 * @throws IOException if the file can't be read.
+	 */
+	private boolean readCSV(File file, Map<String, Value> records) throws IOException {
+		Version v2_1 = new Version(2, 1);
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(file), FlatFileStorage.FILE_CHARSET))) {
+			String line;
+			int lineNum = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNum++;
+				line = line.trim();
+
+				if (line.isEmpty() || line.startsWith("#")) {
+					if (line.startsWith("# version:")) {
+						try {
+							if (new Version(line.substring("# version:".length()).trim()).isSmallerThan(v2_1)) {
+								Skript.error(file.getName() + " was created by a version of Skript older than 2.1 and can't be converted. " +
+									"Please load it with the CSV storage type once before changing the type of the database '" + databaseName + "'.");
+								return false;
+							}
+						} catch (IllegalArgumentException ignored) {
+						}
+					}
+					continue;
+				}
+
+				String[] split = FlatFileStorage.splitCSV(line);
+				if (split == null || split.length != 3) {
+					Skript.error("invalid amount of commas in line " + lineNum + " ('" + line + "')");
+					continue;
+				}
+
+				if (split[1].equals("null"))
+					records.remove(split[0]);
+				else
+					records.put(split[0], new Value(split[1], FlatFileStorage.decode(split[2])));
+			}
+		}
+		return true;
+	}
+
+}
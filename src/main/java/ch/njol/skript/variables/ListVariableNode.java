@@ -0,0 +1,205 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A branch of the variables tree, i.e. the contents of a list variable.
+ * <p>
+ * Besides the list's entries, this map keeps track of which positive integer indices are in use
+ * and of the amount of values in the list, so that appending to a list
+ * and getting its size do not require scanning it.
+ * <p>
+ * The {@code null} key holds the value of the variable with the list's name itself,
+ * e.g. {@code {list}} for the list {@code {list::*}}.
+ * <p>
+ * Only {@link #put(String, Object)}, {@link #putAll(Map)}, {@link #remove(Object)} and {@link #clear()}
+ * keep the indices up to date. Don't modify this map in any other way.
+ */
+public final class ListVariableNode extends TreeMap<String, Object> {
+
+	/**
+	 * The node this node is a branch of,
+	 * or {@code null} if this is a root node.
+	 */
+	@Nullable
+	private ListVariableNode parent;
+
+	/**
+	 * The amount of entries that have a value, i.e. excluding the {@code null} key,
+	 * and branches which don't have a value themselves.
+	 */
+	private int size;
+
+	/**
+	 * The smallest positive integer index that is not in use,
+	 * and of which all smaller indices are either in use or in {@link #holes}.
+	 */
+	private int frontier = 1;
+
+	/**
+	 * The indices smaller than {@link #frontier} which are not in use.
+	 */
+	private final TreeSet<Integer> holes = new TreeSet<>();
+
+	public ListVariableNode() {
+		super(VariablesMap.VARIABLE_NAME_COMPARATOR);
+	}
+
+	/**
+	 * @return the amount of values in this list, not counting nested lists which don't have a value.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the smallest positive integer index that isn't in use by this list,
+	 * and that is at least the given index.
+	 *
+	 * @param start the smallest index to return.
+	 * @return the index.
+	 */
+	public int getNextFreeIndex(int start) {
+		if (start < frontier) {
+			Integer hole = holes.ceiling(start);
+			if (hole != null)
+				return hole;
+			start = frontier;
+		}
+		// The frontier is never in use, so this loop only runs when asking for indices past it
+		while (containsKey(Integer.toString(start)))
+			start++;
+		return start;
+	}
+
+	@Override
+	@Nullable
+	public Object put(@Nullable String key, Object value) {
+		assert value != null;
+		Object old = super.put(key, value);
+
+		if (value instanceof ListVariableNode)
+			((ListVariableNode) value).parent = this;
+		if (old instanceof ListVariableNode && old != value)
+			((ListVariableNode) old).parent = null;
+
+		if (key == null) {
+			if (old == null && parent != null)
+				parent.size++;
+			return old;
+		}
+
+		size += (hasValue(value) ? 1 : 0) - (hasValue(old) ? 1 : 0);
+		if (old == null) {
+			int index = parseIndex(key);
+			if (index == frontier) {
+				do {
+					frontier++;
+				} while (containsKey(Integer.toString(frontier)));
+			} else if (index != -1 && index < frontier) {
+				holes.remove(index);
+			}
+		}
+		return old;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ?> map) {
+		// TreeMap may bypass put when copying sorted maps
+		for (Entry<? extends String, ?> entry : map.entrySet())
+			put(entry.getKey(), entry.getValue());
+	}
+
+	@Override
+	@Nullable
+	public Object remove(@Nullable Object key) {
+		Object old = super.remove(key);
+		if (old == null)
+			return null;
+
+		if (old instanceof ListVariableNode)
+			((ListVariableNode) old).parent = null;
+
+		if (key == null) {
+			if (parent != null)
+				parent.size--;
+			return old;
+		}
+
+		if (hasValue(old))
+			size--;
+		int index = parseIndex((String) key);
+		if (index != -1 && index < frontier)
+			holes.add(index);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		if (parent != null && containsKey(null))
+			parent.size--;
+		for (Object value : values()) {
+			if (value instanceof ListVariableNode)
+				((ListVariableNode) value).parent = null;
+		}
+		super.clear();
+		size = 0;
+		frontier = 1;
+		holes.clear();
+	}
+
+	/**
+	 * @param node an entry of a list, possibly {@code null}.
+	 * @return whether the given entry contributes a value to its list.
+	 */
+	private static boolean hasValue(@Nullable Object node) {
+		if (node instanceof ListVariableNode)
+			return ((ListVariableNode) node).containsKey(null);
+		return node != null;
+	}
+
+	/**
+	 * Parses the given index if it's a positive integer in canonical form, i.e. without leading zeroes.
+	 *
+	 * @param key the index.
+	 * @return the integer, or {@code -1} if the index isn't one.
+	 */
+	private static int parseIndex(String key) {
+		int length = key.length();
+		// Longer indices could overflow, they are not tracked
+		if (length == 0 || length > 9 || key.charAt(0) == '0')
+			return -1;
+		int index = 0;
+		for (int i = 0; i < length; i++) {
+			char c = key.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			index = index * 10 + (c - '0');
+		}
+		return index;
+	}
+
+}
@@ -0,0 +1,98 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.lang.Variable;
+import org.skriptlang.skript.lang.structure.Structure;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The slots of the local variables of a {@link Structure}, assigned while it is parsed.
+ * <p>
+ * Each local variable with a constant name that isn't part of a list, e.g. {@code {_x}} but not {@code {_x::1}} or {@code {_x%y%}},
+ * gets a fixed index. Its value is then stored at that index in an array in the event's local variables,
+ * so no name has to be hashed to access it.
+ * Variables accessed by a dynamic name look up the slot of their name first,
+ * so both ways of accessing a variable always see the same value.
+ */
+public final class LocalVariableSlots {
+
+	private static final Map<Structure, LocalVariableSlots> SLOTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Gets the slots of the local variables of the given structure.
+	 *
+	 * @param structure the structure.
+	 * @return the slots of the structure's local variables.
+	 */
+	public static LocalVariableSlots get(Structure structure) {
+		return SLOTS.computeIfAbsent(structure, s -> new LocalVariableSlots());
+	}
+
+	/**
+	 * Whether the names of the slots have been lowercased, see {@link Variables#caseInsensitiveVariables}.
+	 */
+	private final boolean caseInsensitive = Variables.caseInsensitiveVariables;
+
+	private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+
+	private LocalVariableSlots() {}
+
+	/**
+	 * Gets the slot of the local variable with the given name, assigning a new slot if it doesn't have one yet.
+	 *
+	 * @param name the constant name of the variable, without the local variable token.
+	 * @return the slot of the variable, or {@code -1} if the variable can't have a slot as it's (part of) a list.
+	 */
+	public int getSlot(String name) {
+		if (name.contains(Variable.SEPARATOR) || name.endsWith("*"))
+			return -1;
+		synchronized (indices) {
+			return indices.computeIfAbsent(normalize(name), n -> indices.size());
+		}
+	}
+
+	/**
+	 * Gets the slot of the local variable with the given name.
+	 *
+	 * @param name the name of the variable.
+	 * @return the slot of the variable, or {@code -1} if it doesn't have one.
+	 */
+	int indexOf(String name) {
+		Integer index = indices.get(normalize(name));
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return the amount of slots.
+	 */
+	int size() {
+		return indices.size();
+	}
+
+	private String normalize(String name) {
+		return caseInsensitive ? name.toLowerCase(Locale.ENGLISH) : name;
+	}
+
+}
@@ -22,9 +22,14 @@ import java.io.File;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
@@ -76,6 +81,22 @@ public abstract class SQLStorage extends VariablesStorage {
 	 */
 	private final static long TRANSACTION_DELAY = 500;
 
+	/**
+	 * The default maximum amount of variable changes written in a single batch.
+	 */
+	private final static int DEFAULT_BATCH_SIZE = 100;
+
+	/**
+	 * The maximum amount of variable changes written in a single batch, set by the 'batch size' entry.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * The amount of batches written, and the total and maximum time writing them took in nanoseconds.
+	 * Only modified while holding the lock on {@link #db}.
+	 */
+	private volatile long flushCount, totalFlushTime, maxFlushTime;
+
 	/**
 	 * Creates a SQLStorage with a create table query.
 	 * 
@@ -136,6 +157,19 @@ public abstract class SQLStorage extends VariablesStorage {
 			monitor = monitor_changes;
 			this.monitor_interval = monitor_interval.getMilliSeconds();
 
+			final String batch_size = n.get("batch size", null);
+			if (batch_size != null) {
+				try {
+					batchSize = Integer.parseInt(batch_size);
+				} catch (final NumberFormatException e) {
+					batchSize = 0;
+				}
+				if (batchSize < 1) {
+					Skript.error("The entry for 'batch size' in the database '" + databaseName + "' must be a positive integer");
+					return false;
+				}
+			}
+
 			final Database db;
 			try {
 				Database database = initialize(n);
@@ -201,20 +235,15 @@ public abstract class SQLStorage extends VariablesStorage {
 				if (hasOldTable) {
 					if (!hadNewTable) {
 						Skript.info("[2.1] Updating the database '" + databaseName + "' to the new format...");
-						try {
-							Variables.getReadLock().lock();
-							for (final Entry<String, Object> v : Variables.getVariablesHashMap().entrySet()) {
-								if (accept(v.getKey())) {// only one database was possible, so only checking this database is correct
-									@SuppressWarnings("null")
-									final SerializedVariable var = Variables.serialize(v.getKey(), v.getValue());
-									final SerializedVariable.Value d = var.value;
-									save(var.name, d == null ? null : d.type, d == null ? null : d.data);
-								}
+						for (final Entry<String, Object> v : Variables.getVariablesHashMap().entrySet()) {
+							if (accept(v.getKey())) {// only one database was possible, so only checking this database is correct
+								@SuppressWarnings("null")
+								final SerializedVariable var = Variables.serialize(v.getKey(), v.getValue());
+								final SerializedVariable.Value d = var.value;
+								save(var.name, d == null ? null : d.type, d == null ? null : d.data);
 							}
-							Skript.info("Updated and transferred " + Variables.getVariablesHashMap().size() + " variables to the new table.");
-						} finally {
-							Variables.getReadLock().unlock();
 						}
+						Skript.info("Updated and transferred " + Variables.getVariablesHashMap().size() + " variables to the new table.");
 					}
 					db.query("DELETE FROM " + OLD_TABLE_NAME + " WHERE value IS NULL");
 					db.query("DELETE FROM old USING " + OLD_TABLE_NAME + " AS old, " + getTableName() + " AS new WHERE old.name = new.name");
@@ -447,14 +476,144 @@ public abstract class SQLStorage extends VariablesStorage {
 	@Nullable
 	PreparedStatement monitorCleanUpQuery;
 
+	@Override
+	protected int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Writes the given changes with a single JDBC batch per statement.
+	 * Only the last change of each variable is written.
+	 * If the batch fails, the changes are written one at a time instead.
+	 */
+	@Override
+	protected void save(final List<SerializedVariable> changes) {
+		final Collection<SerializedVariable> coalesced = coalesce(changes);
+		final long time;
+		synchronized (db) {
+			for (final SerializedVariable variable : coalesced) {
+				final SerializedVariable.Value value = variable.value;
+				checkSize(variable.name, value == null ? null : value.data);
+			}
+			final long start = System.nanoTime();
+			try {
+				final PreparedStatement writeQuery = this.writeQuery, deleteQuery = this.deleteQuery;
+				assert writeQuery != null && deleteQuery != null;
+				executeBatch(writeQuery, deleteQuery, coalesced, guid);
+			} catch (final SQLException e) {
+				sqlException(e);
+				super.save(changes);
+			}
+			time = System.nanoTime() - start;
+			flushCount++;
+			totalFlushTime += time;
+			if (time > maxFlushTime)
+				maxFlushTime = time;
+		}
+		if (Skript.debug())
+			Skript.debug("Saved " + coalesced.size() + " variables to the database '" + databaseName + "' in " + TimeUnit.NANOSECONDS.toMillis(time) + " ms (" + getQueueSize() + " changes queued)");
+	}
+
+	/**
+	 * Keeps only the last change of each variable, as earlier changes would be overwritten anyway.
+	 *
+	 * @param changes the changes, in order.
+	 * @return the last change of each variable.
+	 */
+	static Collection<SerializedVariable> coalesce(final List<SerializedVariable> changes) {
+		final Map<String, SerializedVariable> latest = new LinkedHashMap<>();
+		for (final SerializedVariable variable : changes)
+			latest.put(variable.name, variable);
+		return latest.values();
+	}
+
+	/**
+	 * Adds the given changes to the batches of the given statements and executes them.
+	 * The changes must not contain more than one change of the same variable.
+	 * <p>
+	 * If this fails, the batches of both statements are cleared, so the changes
+	 * aren't executed again by the next batch of these (reused) statements.
+	 *
+	 * @param writeQuery the statement to write variables with, see {@link #writeQuery}.
+	 * @param deleteQuery the statement to delete variables with, see {@link #deleteQuery}.
+	 * @param changes the changes.
+	 * @param guid the guid of this server.
+	 */
+	static void executeBatch(final PreparedStatement writeQuery, final PreparedStatement deleteQuery, final Collection<SerializedVariable> changes, final String guid) throws SQLException {
+		boolean writes = false, deletes = false;
+		try {
+			for (final SerializedVariable variable : changes) {
+				final SerializedVariable.Value value = variable.value;
+				if (value == null) {
+					deleteQuery.setString(1, variable.name);
+					deleteQuery.addBatch();
+					deletes = true;
+				} else {
+					int i = 1;
+					writeQuery.setString(i++, variable.name);
+					writeQuery.setString(i++, value.type);
+					writeQuery.setBytes(i++, value.data); // SQLite desn't support setBlob
+					writeQuery.setString(i++, guid);
+					writeQuery.addBatch();
+					writes = true;
+				}
+			}
+			if (deletes)
+				deleteQuery.executeBatch();
+			if (writes)
+				writeQuery.executeBatch();
+		} catch (final SQLException e) {
+			clearBatch(writeQuery, e);
+			clearBatch(deleteQuery, e);
+			throw e;
+		}
+	}
+
+	private static void clearBatch(final PreparedStatement query, final SQLException cause) {
+		try {
+			query.clearBatch();
+		} catch (final SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * @return The amount of batches of variable changes written to this database.
+	 */
+	public long getFlushCount() {
+		return flushCount;
+	}
+
+	/**
+	 * @return The average time writing a batch of variable changes took, in milliseconds.
+	 */
+	public double getAverageFlushTime() {
+		final long flushCount = this.flushCount;
+		return flushCount == 0 ? 0 : totalFlushTime / 1e6 / flushCount;
+	}
+
+	/**
+	 * @return The longest time writing a batch of variable changes took, in milliseconds.
+	 */
+	public double getMaxFlushTime() {
+		return maxFlushTime / 1e6;
+	}
+
+	/**
+	 * Prints an error if the given variable is too large to be saved in the database.
+	 */
+	private void checkSize(final String name, final @Nullable byte[] value) {
+		// REMIND get the actual maximum size from the database
+		if (name.length() > MAX_VARIABLE_NAME_LENGTH)
+			Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
+		if (value != null && value.length > MAX_VALUE_SIZE)
+			Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+	}
+
 	@Override
 	protected boolean save(final String name, final @Nullable String type, final @Nullable byte[] value) {
 		synchronized (db) {
-			// REMIND get the actual maximum size from the database
-			if (name.length() > MAX_VARIABLE_NAME_LENGTH)
-				Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
-			if (value != null && value.length > MAX_VALUE_SIZE)
-				Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+			checkSize(name, value);
 			try {
 				if (type == null) {
 					assert value == null;
@@ -482,8 +641,9 @@ public abstract class SQLStorage extends VariablesStorage {
 
 	@Override
 	public void close() {
+		// Wait for the queued changes to be saved before taking the lock, as saving them requires it
+		super.close();
 		synchronized (db) {
-			super.close();
 			final Database db = this.db.get();
 			if (db != null) {
 				try {
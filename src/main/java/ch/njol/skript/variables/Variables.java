@@ -23,15 +23,18 @@ import ch.njol.skript.SkriptAPIException;
 import ch.njol.skript.SkriptConfig;
 import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.classes.ConfigurationSerializer;
+import ch.njol.skript.classes.Serializer;
 import ch.njol.skript.config.Config;
 import ch.njol.skript.config.Node;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.Variable;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.Task;
 import ch.njol.skript.variables.SerializedVariable.Value;
 import ch.njol.util.Kleenean;
 import ch.njol.util.NonNullPair;
+import ch.njol.util.Pair;
 import ch.njol.util.SynchronizedReference;
 import ch.njol.yggdrasil.Yggdrasil;
 import org.bukkit.Bukkit;
@@ -50,20 +53,18 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.TreeMap;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 /**
@@ -100,6 +101,7 @@ public class Variables {
 	// Register some things with Yggdrasil
 	static {
 		registerStorage(FlatFileStorage.class, "csv", "file", "flatfile");
+		registerStorage(JournalStorage.class, "journal", "binary");
 		registerStorage(SQLiteStorage.class, "sqlite");
 		registerStorage(MySQLStorage.class, "mysql");
 		yggdrasil.registerSingleClass(Kleenean.class, "Kleenean");
@@ -172,6 +174,8 @@ public class Variables {
 		assert variables.hashMap.isEmpty();
 		assert STORAGES.isEmpty();
 
+		writeBehind = SkriptConfig.variableWriteBehind.value();
+
 		Config config = SkriptConfig.getConfig();
 		if (config == null)
 			throw new SkriptAPIException("Cannot load variables before the config");
@@ -303,6 +307,22 @@ public class Variables {
 			loadingLoggerThread.interrupt();
 
 			saveThread.start();
+			if (writeBehind) {
+				flushThread.start();
+				syncFlushTask = new Task(Skript.getInstance(), 1, 1) {
+					@Override
+					public void run() {
+						// Don't block the main thread if the flush thread is busy, try again next tick instead
+						if (syncDirtyVariables.isEmpty() || !flushLock.tryLock())
+							return;
+						try {
+							flushDirtyVariables(syncDirtyVariables, true);
+						} finally {
+							flushLock.unlock();
+						}
+					}
+				};
+			}
 		}
 		return true;
 	}
@@ -324,15 +344,9 @@ public class Variables {
 	}
 
 	/**
-	 * A lock for reading and writing variables.
+	 * The {@link GlobalVariablesMap} storing global variables.
 	 */
-	static final ReadWriteLock variablesLock = new ReentrantReadWriteLock(true);
-
-	/**
-	 * The {@link VariablesMap} storing global variables,
-	 * must be locked with {@link #variablesLock}.
-	 */
-	static final VariablesMap variables = new VariablesMap();
+	static final GlobalVariablesMap variables = new GlobalVariablesMap();
 
 	/**
 	 * A map storing all local variables,
@@ -341,33 +355,34 @@ public class Variables {
 	private static final Map<Event, VariablesMap> localVariables = new ConcurrentHashMap<>();
 
 	/**
-	 * Gets the {@link TreeMap} of all global variables.
+	 * Gets the sorted tree of all global variables, indexed by their list roots.
 	 * <p>
-	 * Remember to lock with {@link #getReadLock()} and to not make any changes!
+	 * This map is safe to iterate, but each branch must be locked with {@link #getLock(String)}
+	 * while reading it. Remember to not make any changes!
 	 */
-	static TreeMap<String, Object> getVariables() {
+	static Map<String, Object> getVariables() {
 		return variables.treeMap;
 	}
 
 	/**
 	 * Gets the {@link Map} of all global variables.
 	 * <p>
-	 * This map cannot be modified.
-	 * Remember to lock with {@link #getReadLock()}!
+	 * This map cannot be modified, but is safe to iterate without locking.
 	 */
 	static Map<String, Object> getVariablesHashMap() {
 		return Collections.unmodifiableMap(variables.hashMap);
 	}
 
 	/**
-	 * Gets the lock for reading variables.
+	 * Gets the lock guarding the list root of the given global variable.
 	 *
+	 * @param name the variable name.
 	 * @return the lock.
 	 *
-	 * @see #variablesLock
+	 * @see GlobalVariablesMap#getLock(String)
 	 */
-	static Lock getReadLock() {
-		return variablesLock.readLock();
+	static Lock getLock(String name) {
+		return variables.getLock(name);
 	}
 
 	/**
@@ -450,27 +465,42 @@ public class Variables {
 
 			return map.getVariable(n);
 		} else {
-			// Prevent race conditions from returning variables with incorrect values
-			if (!changeQueue.isEmpty()) {
-				// Gets the last VariableChange made
-				VariableChange variableChange = changeQueue.stream()
-						.filter(change -> change.name.equals(n))
-						.reduce((first, second) -> second)
-								// Gets last value, as iteration is from head to tail,
-								//  and adding occurs at the tail (and we want the most recently added)
-						.orElse(null);
-
-				if (variableChange != null) {
-					return variableChange.value;
-				}
-			}
+			return variables.getVariable(n);
+		}
+	}
 
-			try {
-				variablesLock.readLock().lock();
-				return variables.getVariable(n);
-			} finally {
-				variablesLock.readLock().unlock();
-			}
+	/**
+	 * Gets a snapshot of the entries of a list variable, e.g. for looping it.
+	 * Unlike iterating the map returned by {@link #getVariable(String, Event, boolean)},
+	 * this doesn't require looking up every value by its full name, and is safe even if the list is changed meanwhile.
+	 * <p>
+	 * This does not take into consideration default variables.
+	 *
+	 * @param name the list variable's name, ending with {@code ::*}.
+	 * @param event if {@code local} is {@code true}, this is the event
+	 *                 the local variable resides in.
+	 * @param local if this variable is a local or global variable.
+	 * @return the indices of the list in order, each with its value, or the value of the variable
+	 * with the index's name if there's a nested list at that index, which may be {@code null}.
+	 * {@code null} if the list variable is not set.
+	 */
+	@Nullable
+	public static List<Pair<String, Object>> getListEntries(String name, @Nullable Event event, boolean local) {
+		String n;
+		if (caseInsensitiveVariables) {
+			n = name.toLowerCase(Locale.ENGLISH);
+		} else {
+			n = name;
+		}
+
+		if (local) {
+			VariablesMap map = localVariables.get(event);
+			if (map == null)
+				return null;
+
+			return map.getListEntries(n);
+		} else {
+			return variables.getListEntries(n);
 		}
 	}
 
@@ -503,17 +533,9 @@ public class Variables {
 			name = name.toLowerCase(Locale.ENGLISH);
 		}
 
-		// Check if conversion is needed due to ClassInfo#getSerializeAs
 		if (value != null) {
 			assert !name.endsWith("::*");
-
-			ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
-			Class<?> sas = ci.getSerializeAs();
-
-			if (sas != null) {
-				value = Converters.convert(value, sas);
-				assert value != null : ci + ", " + sas;
-			}
+			value = convertForStorage(value);
 		}
 
 		if (local) {
@@ -528,90 +550,88 @@ public class Variables {
 	}
 
 	/**
-	 * Sets the given global variable name to the given value.
+	 * Returns the value of a local variable that has a slot.
 	 *
-	 * @param name the variable name.
-	 * @param value the value, or {@code null} to delete the variable.
+	 * @param slots the slots the variable's slot is from.
+	 * @param slot the slot of the variable.
+	 * @param name the name of the variable, used if the event's local variables don't use the given slots.
+	 * @param event the event the local variable resides in.
+	 * @return the value of the variable, or {@code null} if the variable is not set.
+	 *
+	 * @see LocalVariableSlots
 	 */
-	static void setVariable(String name, @Nullable Object value) {
-		boolean gotLock = variablesLock.writeLock().tryLock();
-		if (gotLock) {
-			try {
-				// Set the variable
-				variables.setVariable(name, value);
-				// ..., save the variable change
-				saveVariableChange(name, value);
-				// ..., and process all previously queued changes
-				processChangeQueue();
-			} finally {
-				variablesLock.writeLock().unlock();
-			}
-		} else {
-			// Couldn't acquire variable write lock, queue the change (blocking here is a bad idea)
-			queueVariableChange(name, value);
-		}
+	@Nullable
+	public static Object getLocalVariable(LocalVariableSlots slots, int slot, String name, Event event) {
+		VariablesMap map = localVariables.get(event);
+		if (map == null)
+			return null;
+		if (map.slots == slots)
+			return map.getSlot(slot);
+		return map.getVariable(caseInsensitiveVariables ? name.toLowerCase(Locale.ENGLISH) : name);
 	}
 
 	/**
-	 * Changes to variables that have not yet been performed.
+	 * Sets a local variable that has a slot.
+	 *
+	 * @param slots the slots the variable's slot is from.
+	 * @param slot the slot of the variable.
+	 * @param name the name of the variable, used if the event's local variables don't use the given slots.
+	 * @param value the value, or {@code null} to delete the variable.
+	 * @param event the event the local variable resides in.
+	 *
+	 * @see LocalVariableSlots
 	 */
-	static final Queue<VariableChange> changeQueue = new ConcurrentLinkedQueue<>();
+	public static void setLocalVariable(LocalVariableSlots slots, int slot, String name, @Nullable Object value, Event event) {
+		if (value != null)
+			value = convertForStorage(value);
+
+		VariablesMap map = localVariables.computeIfAbsent(event, e -> new VariablesMap(slots));
+		if (map.slots == slots)
+			map.setSlot(slot, value);
+		else
+			map.setVariable(caseInsensitiveVariables ? name.toLowerCase(Locale.ENGLISH) : name, value);
+	}
 
 	/**
-	 * A variable change name-value pair.
+	 * Converts the given value if needed due to {@link ClassInfo#getSerializeAs()}.
+	 *
+	 * @param value the value of a variable.
+	 * @return the value that should be stored.
 	 */
-	private static class VariableChange {
+	private static Object convertForStorage(Object value) {
+		ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
+		Class<?> sas = ci.getSerializeAs();
 
-		/**
-		 * The name of the changed variable.
-		 */
-		public final String name;
-
-		/**
-		 * The (possibly {@code null}) value of the variable change.
-		 */
-		@Nullable
-		public final Object value;
-
-		/**
-		 * Creates a new {@link VariableChange} with the given name and value.
-		 *
-		 * @param name the variable name.
-		 * @param value the new variable value.
-		 */
-		public VariableChange(String name, @Nullable Object value) {
-			this.name = name;
-			this.value = value;
+		if (sas != null) {
+			Object converted = Converters.convert(value, sas);
+			assert converted != null : ci + ", " + sas;
+			return converted;
 		}
-
+		return value;
 	}
 
 	/**
-	 * Queues a variable change. Only to be called when direct write is not
-	 * possible, but thread cannot be allowed to block.
+	 * Sets the given global variable name to the given value.
 	 *
 	 * @param name the variable name.
-	 * @param value the new value.
+	 * @param value the value, or {@code null} to delete the variable.
 	 */
-	private static void queueVariableChange(String name, @Nullable Object value) {
-		changeQueue.add(new VariableChange(name, value));
-	}
+	static void setVariable(String name, @Nullable Object value) {
+		if (writeBehind) {
+			// The variable must be changed before it's marked dirty, so the flush can't miss the new value
+			variables.setVariable(name, value);
+			dirtyVariables.add(name);
+			return;
+		}
 
-	/**
-	 * Processes all entries in variable change queue.
-	 * <p>
-	 * Note that caller must acquire write lock before calling this,
-	 * then release it.
-	 */
-	static void processChangeQueue() {
-		while (true) { // Run as long as we still have changes
-			VariableChange change = changeQueue.poll();
-			if (change == null)
-				break;
-
-			// Set and save variable
-			variables.setVariable(change.name, change.value);
-			saveVariableChange(change.name, change.value);
+		// Hold the lock while saving too, so changes to the same variable reach the storages in order
+		Lock lock = variables.getLock(name);
+		lock.lock();
+		try {
+			variables.setVariable(name, value);
+			saveVariableChange(name, value);
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -699,12 +719,7 @@ public class Variables {
 			}
 		}
 
-		variablesLock.writeLock().lock();
-		try {
-			variables.setVariable(name, value);
-		} finally {
-			variablesLock.writeLock().unlock();
-		}
+		variables.setVariable(name, value);
 
 		// Move the variable to the right storage
 		try {
@@ -753,24 +768,19 @@ public class Variables {
 			TEMP_VARIABLES.set(null);
 			assert tvs != null;
 
-			variablesLock.writeLock().lock();
-			try {
-				// Calculate the amount of variables that don't have a storage
-				int unstoredVariables = 0;
-				for (Entry<String, NonNullPair<Object, VariablesStorage>> tv : tvs.entrySet()) {
-					if (!variableLoaded(tv.getKey(), tv.getValue().getFirst(), tv.getValue().getSecond()))
-						unstoredVariables++;
-				}
+			// Calculate the amount of variables that don't have a storage
+			int unstoredVariables = 0;
+			for (Entry<String, NonNullPair<Object, VariablesStorage>> tv : tvs.entrySet()) {
+				if (!variableLoaded(tv.getKey(), tv.getValue().getFirst(), tv.getValue().getSecond()))
+					unstoredVariables++;
+			}
 
-				for (VariablesStorage variablesStorage : STORAGES)
-					variablesStorage.allLoaded();
+			for (VariablesStorage variablesStorage : STORAGES)
+				variablesStorage.allLoaded();
 
-				Skript.debug("Variables set. Queue size = " + saveQueue.size());
+			Skript.debug("Variables set. Queue size = " + saveQueue.size());
 
-				return unstoredVariables;
-			} finally {
-				variablesLock.writeLock().unlock();
-			}
+			return unstoredVariables;
 		}
 	}
 
@@ -778,14 +788,15 @@ public class Variables {
 	 * Creates a {@link SerializedVariable} from the given variable name
 	 * and value.
 	 * <p>
-	 * Must be called from Bukkit's main thread.
+	 * Must be called from Bukkit's main thread if the value's serializer requires it,
+	 * see {@link Classes#mustSerializeSync(Object)}.
 	 *
 	 * @param name the variable name.
 	 * @param value the value.
 	 * @return the serialized variable.
 	 */
 	public static SerializedVariable serialize(String name, @Nullable Object value) {
-		assert Bukkit.isPrimaryThread();
+		assert value == null || Bukkit.isPrimaryThread() || !Classes.mustSerializeSync(value);
 
 		// First, serialize the variable.
 		SerializedVariable.Value var;
@@ -801,13 +812,14 @@ public class Variables {
 	/**
 	 * Serializes the given value.
 	 * <p>
-	 * Must be called from Bukkit's main thread.
+	 * Must be called from Bukkit's main thread if the value's serializer requires it,
+	 * see {@link Classes#mustSerializeSync(Object)}.
 	 *
 	 * @param value the value to serialize.
 	 * @return the serialized value.
 	 */
 	public static SerializedVariable.@Nullable Value serialize(@Nullable Object value) {
-		assert Bukkit.isPrimaryThread();
+		assert value == null || Bukkit.isPrimaryThread() || !Classes.mustSerializeSync(value);
 
 		return Classes.serialize(value);
 	}
@@ -833,6 +845,101 @@ public class Variables {
 	 */
 	private static volatile boolean closed = false;
 
+	/**
+	 * Whether global variable changes are saved using write-behind.
+	 * <p>
+	 * In this mode, changing a variable only marks its name as dirty.
+	 * The {@link #flushThread} periodically serializes the latest value of every dirty variable
+	 * and queues it to be saved, so a variable changed many times in a short period is only serialized once.
+	 * Values whose {@link Serializer#mustSyncDeserialization() serializer requires Bukkit's main thread}
+	 * are serialized by the {@link #syncFlushTask} instead, in one batch per tick.
+	 * <p>
+	 * Decided when the variables are loaded.
+	 */
+	private static boolean writeBehind = false;
+
+	/**
+	 * The names of the global variables which have been changed but not yet been serialized,
+	 * if {@link #writeBehind} is enabled.
+	 */
+	private static final Set<String> dirtyVariables = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The names of dirty global variables whose value must be serialized on Bukkit's main thread.
+	 */
+	private static final Set<String> syncDirtyVariables = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Must be held while flushing dirty variables.
+	 * Allowing only one flush at a time ensures an older value of a variable
+	 * can never be saved after a newer one.
+	 */
+	private static final Lock flushLock = new ReentrantLock();
+
+	/**
+	 * The time in milliseconds between two flushes of the {@link #flushThread}.
+	 */
+	private static final long FLUSH_INTERVAL = 50;
+
+	/**
+	 * The thread that serializes dirty variables, if {@link #writeBehind} is enabled.
+	 */
+	private static final Thread flushThread = Skript.newThread(() -> {
+		while (!closed) {
+			try {
+				Thread.sleep(FLUSH_INTERVAL);
+			} catch (InterruptedException ignored) {}
+
+			flushLock.lock();
+			try {
+				flushDirtyVariables(dirtyVariables, false);
+			} finally {
+				flushLock.unlock();
+			}
+		}
+	}, "Skript variable flush thread");
+
+	/**
+	 * The task that serializes dirty variables which must be serialized on Bukkit's main thread,
+	 * if {@link #writeBehind} is enabled.
+	 */
+	@Nullable
+	private static Task syncFlushTask;
+
+	/**
+	 * Serializes the current values of the given dirty variables and adds them to the {@link #saveQueue}.
+	 * <p>
+	 * Must be called while holding the {@link #flushLock}.
+	 *
+	 * @param names the names of the dirty variables, this set will be emptied.
+	 * @param mainThread whether this is called on Bukkit's main thread. If not, variables which must be serialized
+	 *                   on the main thread are moved to {@link #syncDirtyVariables}.
+	 */
+	private static void flushDirtyVariables(Set<String> names, boolean mainThread) {
+		Iterator<String> iterator = names.iterator();
+		while (iterator.hasNext()) {
+			String name = iterator.next();
+			// Remove the name before reading the value, so a concurrent change will mark it dirty again
+			iterator.remove();
+
+			Object value = name.endsWith("*") ? null : variables.getVariable(name);
+			if (!mainThread && value != null && Classes.mustSerializeSync(value)) {
+				syncDirtyVariables.add(name);
+				continue;
+			}
+
+			SerializedVariable.Value serializedValue;
+			try {
+				serializedValue = serialize(value);
+			} catch (Exception e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e, "Error saving variable named " + name);
+				continue;
+			}
+			saveQueue.add(new SerializedVariable(name, serializedValue));
+		}
+	}
+
 	/**
 	 * The thread that saves variables, i.e. stores in the appropriate storage.
 	 */
@@ -856,16 +963,24 @@ public class Variables {
 	/**
 	 * Closes the variable systems:
 	 * <ul>
-	 *     <li>Process all changes left in the {@link #changeQueue}.</li>
+	 *     <li>Serializes all dirty variables, if {@link #writeBehind} is enabled.</li>
+	 *     <li>Waits for all changes in the {@link #saveQueue} to be handed to their storages.</li>
 	 *     <li>Stops the {@link #saveThread}.</li>
 	 * </ul>
 	 */
 	public static void close() {
-		try { // Ensure that all changes are to save soon
-			variablesLock.writeLock().lock();
-			processChangeQueue();
-		} finally {
-			variablesLock.writeLock().unlock();
+		if (writeBehind) {
+			if (syncFlushTask != null)
+				syncFlushTask.cancel();
+
+			// Skript is being disabled on the main thread, so all dirty variables can be serialized here
+			flushLock.lock();
+			try {
+				flushDirtyVariables(dirtyVariables, true);
+				flushDirtyVariables(syncDirtyVariables, true);
+			} finally {
+				flushLock.unlock();
+			}
 		}
 
 		// First, make sure all variables are saved
@@ -878,6 +993,8 @@ public class Variables {
 		// Then we can safely interrupt and stop the thread
 		closed = true;
 		saveThread.interrupt();
+		if (writeBehind)
+			flushThread.interrupt();
 	}
 
 	/**
@@ -886,12 +1003,7 @@ public class Variables {
 	 * @return the amount of variables.
 	 */
 	public static int numVariables() {
-		try {
-			variablesLock.readLock().lock();
-			return variables.hashMap.size();
-		} finally {
-			variablesLock.readLock().unlock();
-		}
+		return variables.hashMap.size();
 	}
 
 }
@@ -19,19 +19,26 @@
 package ch.njol.skript.variables;
 
 import ch.njol.skript.lang.Variable;
+import ch.njol.util.Pair;
 import ch.njol.util.StringUtils;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.TreeMap;
 
 /**
  * A map for storing variables in a sorted and efficient manner.
+ * <p>
+ * This map is not thread-safe, see {@link GlobalVariablesMap} for the variant used by global variables.
  */
-final class VariablesMap {
+class VariablesMap {
 
 	/**
 	 * The comparator for comparing variable names.
@@ -141,11 +148,83 @@ final class VariablesMap {
 	/**
 	 * The map that stores all non-list variables.
 	 */
-	final HashMap<String, Object> hashMap = new HashMap<>();
+	final Map<String, Object> hashMap;
 	/**
 	 * The tree of variables, branched by the list structure of the variables.
+	 * <p>
+	 * While the root of the tree may be any kind of {@link NavigableMap},
+	 * all its branches are always {@link ListVariableNode}s.
+	 */
+	final NavigableMap<String, Object> treeMap;
+
+	/**
+	 * The slots of the local variables stored in {@link #slotValues}, or {@code null} if this map has no slots.
+	 * Variables with a slot are neither in the {@link #hashMap} nor in the {@link #treeMap}.
+	 */
+	@Nullable
+	final LocalVariableSlots slots;
+
+	/**
+	 * The values of the variables with a slot, indexed by their slot.
+	 */
+	private Object[] slotValues;
+
+	VariablesMap() {
+		this(new HashMap<>(), new TreeMap<>());
+	}
+
+	/**
+	 * Creates a new map for local variables that stores the variables with a slot in an array.
+	 *
+	 * @param slots the slots of the local variables.
 	 */
-	final TreeMap<String, Object> treeMap = new TreeMap<>();
+	VariablesMap(LocalVariableSlots slots) {
+		this.hashMap = new HashMap<>();
+		this.treeMap = new TreeMap<>();
+		this.slots = slots;
+		this.slotValues = new Object[slots.size()];
+	}
+
+	/**
+	 * Creates a new variables map backed by the given (empty) maps.
+	 *
+	 * @param hashMap the map to store non-list variables in.
+	 * @param treeMap the root of the tree of variables.
+	 */
+	VariablesMap(Map<String, Object> hashMap, NavigableMap<String, Object> treeMap) {
+		assert hashMap.isEmpty() && treeMap.isEmpty();
+		this.hashMap = hashMap;
+		this.treeMap = treeMap;
+		this.slots = null;
+		this.slotValues = new Object[0];
+	}
+
+	/**
+	 * Gets the value of the variable with the given slot.
+	 *
+	 * @param slot the slot, from {@link #slots}.
+	 * @return the value, or {@code null} if the variable is not set.
+	 */
+	@Nullable
+	Object getSlot(int slot) {
+		return slot < slotValues.length ? slotValues[slot] : null;
+	}
+
+	/**
+	 * Sets the value of the variable with the given slot.
+	 *
+	 * @param slot the slot, from {@link #slots}.
+	 * @param value the value, {@code null} to delete the variable.
+	 */
+	void setSlot(int slot, @Nullable Object value) {
+		if (slot >= slotValues.length) {
+			if (value == null)
+				return;
+			// More slots have been assigned since this map was created
+			slotValues = Arrays.copyOf(slotValues, Math.max(slot + 1, slots == null ? 0 : slots.size()));
+		}
+		slotValues[slot] = value;
+	}
 
 	/**
 	 * Returns the internal value of the requested variable.
@@ -161,6 +240,11 @@ final class VariablesMap {
 	@Nullable
 	Object getVariable(String name) {
 		if (!name.endsWith("*")) {
+			if (slots != null) {
+				int slot = slots.indexOf(name);
+				if (slot != -1)
+					return getSlot(slot);
+			}
 			// Not a list variable, quick access from the hash map
 			return hashMap.get(name);
 		} else {
@@ -196,6 +280,36 @@ final class VariablesMap {
 		}
 	}
 
+	/**
+	 * Gets a snapshot of the entries of the given list variable,
+	 * which can be iterated without looking up each of its values by name.
+	 *
+	 * @param name the name of the list variable, ending with {@code *}.
+	 * @return the indices of the list in order, each with its value or the value of the nested list at that index,
+	 * which is {@code null} if only the nested list's own entries are set.
+	 * {@code null} if the list variable is not set.
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	List<Pair<String, Object>> getListEntries(String name) {
+		assert name.endsWith("*") : name;
+		Object list = getVariable(name);
+		if (!(list instanceof Map))
+			return null;
+		Map<String, Object> map = (Map<String, Object>) list;
+		List<Pair<String, Object>> entries = new ArrayList<>(map.size());
+		for (Entry<String, Object> entry : map.entrySet()) {
+			String index = entry.getKey();
+			if (index == null) // The value of the variable with the list's name itself
+				continue;
+			Object value = entry.getValue();
+			if (value instanceof Map)
+				value = ((Map<String, Object>) value).get(null);
+			entries.add(new Pair<>(index, value));
+		}
+		return entries;
+	}
+
 	/**
 	 * Sets the given variable to the given value.
 	 * <p>
@@ -207,6 +321,14 @@ final class VariablesMap {
 	 */
 	@SuppressWarnings("unchecked")
 	void setVariable(String name, @Nullable Object value) {
+		if (slots != null && !name.endsWith("*")) {
+			int slot = slots.indexOf(name);
+			if (slot != -1) {
+				setSlot(slot, value);
+				return;
+			}
+		}
+
 		// First update the hash map easily
 		if (!name.endsWith("*")) {
 			if (value == null)
@@ -217,7 +339,7 @@ final class VariablesMap {
 
 		// Then update the tree map by going down the branches
 		String[] split = Variables.splitVariableName(name);
-		TreeMap<String, Object> parent = treeMap;
+		Map<String, Object> parent = treeMap;
 
 		// Iterate over the parts of the variable name
 		for (int i = 0; i < split.length; i++) {
@@ -234,7 +356,7 @@ final class VariablesMap {
 					break;
 				} else if (value != null) {
 					// Create child node, add it to parent and continue iteration
-					childNode = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+					childNode = new ListVariableNode();
 
 					parent.put(childNodeName, childNode);
 					parent = (TreeMap<String, Object>) childNode;
@@ -287,7 +409,7 @@ final class VariablesMap {
 					break;
 				} else if (value != null) {
 					// Need to continue iteration, create new child node and put old value in it
-					TreeMap<String, Object> newChildNodeMap = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+					ListVariableNode newChildNodeMap = new ListVariableNode();
 					newChildNodeMap.put(null, childNode);
 
 					// Add new child node to parent
@@ -330,13 +452,19 @@ final class VariablesMap {
 	 *
 	 * @return the copy.
 	 */
+	@SuppressWarnings("unchecked")
 	public VariablesMap copy() {
-		VariablesMap copy = new VariablesMap();
+		VariablesMap copy = slots == null ? new VariablesMap() : new VariablesMap(slots);
+		copy.slotValues = slotValues.clone();
 
 		copy.hashMap.putAll(hashMap);
 
-		TreeMap<String, Object> treeMapCopy = copyTreeMap(treeMap);
-		copy.treeMap.putAll(treeMapCopy);
+		for (Entry<String, Object> child : treeMap.entrySet()) {
+			Object value = child.getValue();
+			if (value instanceof TreeMap)
+				value = copyTreeMap((TreeMap<String, Object>) value);
+			copy.treeMap.put(child.getKey(), value);
+		}
 
 		return copy;
 	}
@@ -351,8 +479,8 @@ final class VariablesMap {
 	 * @return the copy.
 	 */
 	@SuppressWarnings("unchecked")
-	private static TreeMap<String, Object> copyTreeMap(TreeMap<String, Object> original) {
-		TreeMap<String, Object> copy = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+	private static ListVariableNode copyTreeMap(TreeMap<String, Object> original) {
+		ListVariableNode copy = new ListVariableNode();
 
 		for (Entry<String, Object> child : original.entrySet()) {
 			String key = child.getKey();
@@ -20,7 +20,10 @@ package ch.njol.skript.variables;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -61,6 +64,13 @@ public abstract class VariablesStorage implements Closeable {
 
 	final LinkedBlockingQueue<SerializedVariable> changesQueue = new LinkedBlockingQueue<>(QUEUE_SIZE);
 
+	/**
+	 * The amount of changes that have been queued, but not saved yet.
+	 * Unlike the size of the {@link #changesQueue}, this includes the changes
+	 * that are being saved by the {@link #writeThread}.
+	 */
+	private final AtomicInteger unsavedChanges = new AtomicInteger();
+
 	/**
 	 * Whether this variable storage has been {@link #close() closed}.
 	 */
@@ -104,19 +114,22 @@ public abstract class VariablesStorage implements Closeable {
 		databaseName = name;
 
 		writeThread = Skript.newThread(() -> {
+			List<SerializedVariable> batch = new ArrayList<>();
 			while (!closed) {
 				try {
-					// Take a variable from the queue and process it
-					SerializedVariable variable = changesQueue.take();
-					Value value = variable.value;
-
-					// Actually save the variable
-					if (value != null)
-						save(variable.name, value.type, value.data);
-					else
-						save(variable.name, null, null);
+					// Take as many variables from the queue as can be saved at once and process them
+					batch.add(changesQueue.take());
+					int batchSize = getBatchSize();
+					if (batchSize > 1)
+						changesQueue.drainTo(batch, batchSize - 1);
+
+					// Actually save the variables
+					save(batch);
 				} catch (InterruptedException ignored) {
 					// Ignored as the `closed` field will indicate whether the thread actually needs to stop
+				} finally {
+					unsavedChanges.addAndGet(-batch.size());
+					batch.clear();
 				}
 			}
 		}, "Skript variable save thread for database '" + name + "'");
@@ -275,7 +288,7 @@ public abstract class VariablesStorage implements Closeable {
 	protected abstract File getFile(String fileName);
 
 	/**
-	 * Must be locked after {@link Variables#getReadLock()}
+	 * Must be locked before {@link Variables#getLock(String)}
 	 * (if that lock is used at all).
 	 */
 	protected final Object connectionLock = new Object();
@@ -375,6 +388,8 @@ public abstract class VariablesStorage implements Closeable {
 	 * @param var the serialized variable.
 	 */
 	final void save(SerializedVariable var) {
+		unsavedChanges.incrementAndGet();
+
 		if (changesQueue.size() > FIRST_WARNING && lastWarning < System.currentTimeMillis() - WARNING_INTERVAL * 1000) {
 			// Too many variables queued up to save, warn the server
 			Skript.warning("Cannot write variables to the database '" + databaseName + "' at sufficient speed; " +
@@ -419,7 +434,7 @@ public abstract class VariablesStorage implements Closeable {
 	@Override
 	public void close() {
 		// Wait for all variable changes to be processed
-		while (changesQueue.size() > 0) {
+		while (unsavedChanges.get() > 0) {
 			try {
 				Thread.sleep(10);
 			} catch (InterruptedException ignored) {}
@@ -437,7 +452,48 @@ public abstract class VariablesStorage implements Closeable {
 	 * after calling this method.
 	 */
 	protected void clearChangesQueue() {
-		changesQueue.clear();
+		List<SerializedVariable> cleared = new ArrayList<>();
+		changesQueue.drainTo(cleared);
+		unsavedChanges.addAndGet(-cleared.size());
+	}
+
+	/**
+	 * Gets the amount of variable changes that are waiting to be saved.
+	 *
+	 * @return the size of the queue of unsaved variables.
+	 */
+	public int getQueueSize() {
+		return changesQueue.size();
+	}
+
+	/**
+	 * The maximum amount of variable changes the {@link #writeThread}
+	 * passes to {@link #save(List)} at once.
+	 * <p>
+	 * The default implementation returns {@code 1}, i.e. changes are saved one at a time.
+	 *
+	 * @return the batch size.
+	 */
+	protected int getBatchSize() {
+		return 1;
+	}
+
+	/**
+	 * Saves the given variable changes, in order.
+	 * <p>
+	 * This is called from the {@link #writeThread} with at most {@link #getBatchSize()} changes.
+	 * The default implementation calls {@link #save(String, String, byte[])} for each change.
+	 *
+	 * @param changes the changes to save.
+	 */
+	protected void save(List<SerializedVariable> changes) {
+		for (SerializedVariable variable : changes) {
+			Value value = variable.value;
+			if (value != null)
+				save(variable.name, value.type, value.data);
+			else
+				save(variable.name, null, null);
+		}
 	}
 
 	/**
@@ -34,6 +34,13 @@ public final class DefaultYggdrasilOutputStream extends YggdrasilOutputStream {
 	private final OutputStream out;
 	private final short version;
 	
+	/**
+	 * Everything is written to this buffer first and only passed to {@link #out} when it's full or this stream is flushed,
+	 * as most writes are single bytes, which most output streams don't handle efficiently.
+	 */
+	private final byte[] buffer = new byte[8192];
+	private int bufferSize = 0;
+	
 	public DefaultYggdrasilOutputStream(Yggdrasil yggdrasil, OutputStream out) throws IOException {
 		super(yggdrasil);
 		this.out = out;
@@ -43,12 +50,33 @@ public final class DefaultYggdrasilOutputStream extends YggdrasilOutputStream {
 	}
 	
 	private void write(int b) throws IOException {
-		out.write(b);
+		if (bufferSize == buffer.length)
+			flushBuffer();
+		buffer[bufferSize++] = (byte) b;
+	}
+	
+	private void write(byte[] bytes) throws IOException {
+		if (bytes.length > buffer.length - bufferSize) {
+			flushBuffer();
+			if (bytes.length > buffer.length) {
+				out.write(bytes);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, bufferSize, bytes.length);
+		bufferSize += bytes.length;
+	}
+	
+	private void flushBuffer() throws IOException {
+		if (bufferSize > 0) {
+			out.write(buffer, 0, bufferSize);
+			bufferSize = 0;
+		}
 	}
 	
 	@Override
 	protected void writeTag(Tag tag) throws IOException {
-		out.write(tag.tag);
+		write(tag.tag);
 	}
 	
 	private final Map<String, Integer> writtenShortStrings = new HashMap<>();
@@ -58,12 +86,13 @@ public final class DefaultYggdrasilOutputStream extends YggdrasilOutputStream {
 	 * Writes a class ID or Field name
 	 */
 	private void writeShortString(String string) throws IOException {
-		if (writtenShortStrings.containsKey(string)) {
+		Integer id = writtenShortStrings.get(string);
+		if (id != null) {
 			writeTag(T_REFERENCE);
 			if (version <= 1)
-				writeInt(writtenShortStrings.get(string));
+				writeInt(id);
 			else
-				writeUnsignedInt(writtenShortStrings.get(string));
+				writeUnsignedInt(id);
 		} else {
 			if (nextShortStringID < 0)
 				throw new YggdrasilException("Too many field names/class IDs (max: " + Integer.MAX_VALUE + ")");
@@ -71,7 +100,7 @@ public final class DefaultYggdrasilOutputStream extends YggdrasilOutputStream {
 			if (d.length >= (T_REFERENCE.tag & 0xFF))
 				throw new YggdrasilException("Field name or Class ID too long: " + string);
 			write(d.length);
-			out.write(d);
+			write(d);
 			if (d.length > 4)
 				writtenShortStrings.put(string, nextShortStringID++);
 		}
@@ -178,7 +207,7 @@ public final class DefaultYggdrasilOutputStream extends YggdrasilOutputStream {
 	protected void writeStringValue(String string) throws IOException {
 		byte[] d = string.getBytes(StandardCharsets.UTF_8);
 		writeUnsignedInt(d.length);
-		out.write(d);
+		write(d);
 	}
 	
 	@Override
@@ -274,11 +303,13 @@ public final class DefaultYggdrasilOutputStream extends YggdrasilOutputStream {
 	
 	@Override
 	public void flush() throws IOException {
+		flushBuffer();
 		out.flush();
 	}
 	
 	@Override
 	public void close() throws IOException {
+		flushBuffer();
 		out.close();
 	}
 	
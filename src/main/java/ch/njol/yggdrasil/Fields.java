@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -57,8 +58,8 @@ public final class Fields implements Iterable<FieldContext> {
 			this.id = id;
 		}
 		
-		FieldContext(Field field, Object object) throws IllegalArgumentException, IllegalAccessException {
-			id = Yggdrasil.getID(field);
+		FieldContext(String id, Field field, Object object) throws IllegalArgumentException, IllegalAccessException {
+			this.id = id;
 			value = field.get(object);
 			isPrimitiveValue = field.getType().isPrimitive();
 		}
@@ -192,9 +193,8 @@ public final class Fields implements Iterable<FieldContext> {
 	 */
 	public Fields(Class<?> type, Yggdrasil yggdrasil) throws NotSerializableException {
 		this.yggdrasil = yggdrasil;
-		for (Field field : getFields(type)) {
-			assert field != null;
-			String id = Yggdrasil.getID(field);
+		for (String id : getSerializableFields(type).ids) {
+			assert id != null;
 			fields.put(id, new FieldContext(id));
 		}
 	}
@@ -223,17 +223,81 @@ public final class Fields implements Iterable<FieldContext> {
 		this.yggdrasil = yggdrasil;
 		Class<?> type = object.getClass();
 		assert type != null;
-		for (Field field : getFields(type)) {
-			assert field != null;
+		SerializableFields serializableFields = getSerializableFields(type);
+		for (int i = 0; i < serializableFields.ids.length; i++) {
+			String id = serializableFields.ids[i];
 			try {
-				fields.put(Yggdrasil.getID(field), new FieldContext(field, object));
+				fields.put(id, new FieldContext(id, serializableFields.fields[i], object));
 			} catch (IllegalArgumentException | IllegalAccessException e) {
 				assert false;
 			}
 		}
 	}
 	
-	private static final Map<Class<?>, Collection<Field>> cache = new HashMap<>();
+	/**
+	 * The serializable fields of a class and their IDs, which are looked up for every serialized object.
+	 */
+	private static final class SerializableFields {
+		
+		private final Field[] fields;
+		private final String[] ids;
+		private final Collection<Field> fieldCollection;
+		
+		/**
+		 * Set if the fields can't be serialized, in which case the arrays are empty
+		 */
+		@Nullable
+		private final String error;
+		
+		SerializableFields(Class<?> type) {
+			List<Field> fields = new ArrayList<>();
+			List<String> ids = new ArrayList<>();
+			Set<String> uniqueIds = new HashSet<>();
+			String error = null;
+			outer:
+			for (Class<?> superClass = type; superClass != null; superClass = superClass.getSuperclass()) {
+				Field[] declaredFields = superClass.getDeclaredFields();
+				for (Field field : declaredFields) {
+					int modifiers = field.getModifiers();
+					if (field.isSynthetic() || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers))
+						continue;
+					String id = Yggdrasil.getID(field);
+					if (!uniqueIds.add(id)) {
+						error = type + "/" + superClass + ": duplicate field id '" + id + "'";
+						fields.clear();
+						ids.clear();
+						break outer;
+					}
+					field.setAccessible(true);
+					fields.add(field);
+					ids.add(id);
+				}
+			}
+			this.fields = fields.toArray(new Field[0]);
+			this.ids = ids.toArray(new String[0]);
+			this.fieldCollection = Collections.unmodifiableList(fields);
+			this.error = error;
+		}
+		
+	}
+	
+	/**
+	 * Unlike a map, a ClassValue can be read by several threads at once, e.g. when variables are saved
+	 * while others are being loaded, and doesn't prevent classes of disabled addons from being unloaded.
+	 */
+	private static final ClassValue<SerializableFields> cache = new ClassValue<SerializableFields>() {
+		@Override
+		protected SerializableFields computeValue(Class<?> type) {
+			return new SerializableFields(type);
+		}
+	};
+	
+	private static SerializableFields getSerializableFields(Class<?> type) throws NotSerializableException {
+		SerializableFields fields = cache.get(type);
+		if (fields.error != null)
+			throw new NotSerializableException(fields.error);
+		return fields;
+	}
 	
 	/**
 	 * Gets all serializable fields of the provided class, including superclasses.
@@ -244,28 +308,7 @@ public final class Fields implements Iterable<FieldContext> {
 	 *                                  field with the same name as a field in one of its superclasses)
 	 */
 	public static Collection<Field> getFields(Class<?> type) throws NotSerializableException {
-		Collection<Field> fields = cache.get(type);
-		if (fields != null)
-			return fields;
-		fields = new ArrayList<>();
-		Set<String> ids = new HashSet<>();
-		for (Class<?> superClass = type; superClass != null; superClass = superClass.getSuperclass()) {
-			Field[] declaredFields = superClass.getDeclaredFields();
-			for (Field field : declaredFields) {
-				int modifiers = field.getModifiers();
-				if (field.isSynthetic() || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers))
-					continue;
-				String id = Yggdrasil.getID(field);
-				if (ids.contains(id))
-					throw new NotSerializableException(type + "/" + superClass + ": duplicate field id '" + id + "'");
-				field.setAccessible(true);
-				fields.add(field);
-				ids.add(id);
-			}
-		}
-		fields = Collections.unmodifiableCollection(fields);
-		cache.put(type, fields);
-		return fields;
+		return getSerializableFields(type).fieldCollection;
 	}
 	
 	/**
@@ -281,9 +324,10 @@ public final class Fields implements Iterable<FieldContext> {
 		Set<FieldContext> excessive = new HashSet<>(fields.values());
 		Class<?> type = object.getClass();
 		assert type != null;
-		for (Field field : getFields(type)) {
-			assert field != null;
-			String id = Yggdrasil.getID(field);
+		SerializableFields serializableFields = getSerializableFields(type);
+		for (int i = 0; i < serializableFields.ids.length; i++) {
+			Field field = serializableFields.fields[i];
+			String id = serializableFields.ids[i];
 			FieldContext context = fields.get(id);
 			if (context == null) {
 				if (!(object instanceof YggdrasilRobustSerializable) || !((YggdrasilRobustSerializable) object).missingField(field))
@@ -100,6 +100,10 @@ public final class Yggdrasil {
 		classResolvers.add(simpleClassResolver);
 	}
 	
+	/**
+	 * The returned stream buffers what it writes, so it must be {@link YggdrasilOutputStream#flush() flushed}
+	 * or {@link YggdrasilOutputStream#close() closed} before the written data can be used.
+	 */
 	public YggdrasilOutputStream newOutputStream(OutputStream out) throws IOException {
 		return new DefaultYggdrasilOutputStream(this, out);
 	}
@@ -20,7 +20,6 @@ package org.skriptlang.skript.lang.converter;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
-import ch.njol.util.Pair;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
@@ -28,9 +27,10 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Converters are used to provide Skript with specific instructions for converting an object to a different type.
@@ -58,11 +58,19 @@ public final class Converters {
 	}
 
 	/**
-	 * A map for quickly access converters that have already been resolved.
-	 * Some pairs may point to a null value, indicating that no converter exists between the two types.
+	 * A cache for quickly accessing converters that have already been resolved, indexed by the type to convert from
+	 *  and then by the type to convert to.
+	 * Some pairs may point to an empty value, indicating that no converter exists between the two types.
 	 * This is useful for skipping complex lookups that may require chaining.
+	 * <br>
+	 * Looking up a resolved converter neither locks nor allocates, as this is done for every conversion at runtime, from any thread.
 	 */
-	private static final Map<Pair<Class<?>, Class<?>>, ConverterInfo<?, ?>> QUICK_ACCESS_CONVERTERS = new HashMap<>(50);
+	private static final ClassValue<Map<Class<?>, Optional<ConverterInfo<?, ?>>>> QUICK_ACCESS_CONVERTERS = new ClassValue<Map<Class<?>, Optional<ConverterInfo<?, ?>>>>() {
+		@Override
+		protected Map<Class<?>, Optional<ConverterInfo<?, ?>>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
 
 	/**
 	 * Registers a new Converter with Skript's collection of Converters.
@@ -221,19 +229,18 @@ public final class Converters {
 	public static <F, T> ConverterInfo<F, T> getConverterInfo(Class<F> fromType, Class<T> toType) {
 		assertIsDoneLoading();
 
-		Pair<Class<?>, Class<?>> pair = new Pair<>(fromType, toType);
-		ConverterInfo<F, T> converter;
-
-		synchronized (QUICK_ACCESS_CONVERTERS) {
-			if (QUICK_ACCESS_CONVERTERS.containsKey(pair)) {
-				converter = (ConverterInfo<F, T>) QUICK_ACCESS_CONVERTERS.get(pair);
-			} else { // Compute QUICK_ACCESS for provided types
-				converter = getConverterInfo_i(fromType, toType);
-				QUICK_ACCESS_CONVERTERS.put(pair, converter);
-			}
+		Map<Class<?>, Optional<ConverterInfo<?, ?>>> converters = QUICK_ACCESS_CONVERTERS.get(fromType);
+		Optional<ConverterInfo<?, ?>> converter = converters.get(toType);
+		if (converter == null) { // Compute QUICK_ACCESS for provided types
+			// Not computeIfAbsent, as resolving a converter may look up other converters.
+			// Threads racing here resolve the same converter, and the first one to finish is kept.
+			converter = Optional.ofNullable(getConverterInfo_i(fromType, toType));
+			Optional<ConverterInfo<?, ?>> existing = converters.putIfAbsent(toType, converter);
+			if (existing != null)
+				converter = existing;
 		}
 
-		return converter;
+		return (ConverterInfo<F, T>) converter.orElse(null);
 	}
 
 	/**
@@ -24,7 +24,9 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Unmodifiable;
 import org.skriptlang.skript.lang.structure.Structure;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +74,19 @@ public final class Script {
 		return Collections.unmodifiableList(structures);
 	}
 
+	/**
+	 * Replaces Structures of this Script after only some of them were reloaded.
+	 * The Structures are kept in the order of their sections in the file.
+	 * @param removed The Structures that were unloaded.
+	 * @param added The Structures that were loaded in their place.
+	 */
+	@ApiStatus.Internal
+	public void replaceStructures(Collection<Structure> removed, Collection<Structure> added) {
+		structures.removeAll(removed);
+		structures.addAll(added);
+		structures.sort(Comparator.comparingInt(structure -> structure.getEntryContainer().getSource().getLine()));
+	}
+
 	// Warning Suppressions
 
 	private final Set<ScriptWarning> suppressedWarnings = new HashSet<>(ScriptWarning.values().length);
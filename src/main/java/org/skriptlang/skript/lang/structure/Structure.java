@@ -28,6 +28,7 @@ import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.SyntaxElement;
+import ch.njol.skript.lang.SyntaxIndex;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
@@ -146,6 +147,17 @@ public abstract class Structure implements SyntaxElement, Debuggable {
 		return true;
 	}
 
+	/**
+	 * Whether the {@link #load()} phase of this Structure may run at the same time as that of other Structures with the same priority.
+	 * This is only done if parallel script loading is enabled, and {@link #preLoad()} and {@link #postLoad()} are never run in parallel.
+	 * A Structure returning true must not modify state shared with other Structures while loading,
+	 *  except through thread-safe registries, and every syntax element it parses must do the same.
+	 * @return Whether this Structure can be loaded in parallel. By default, this is false.
+	 */
+	public boolean isParallelLoadable() {
+		return false;
+	}
+
 	/**
 	 * Called when this structure is unloaded.
 	 */
@@ -177,7 +189,7 @@ public abstract class Structure implements SyntaxElement, Debuggable {
 		ParserInstance.get().getData(StructureData.class).sectionNode = sectionNode;
 
 		Iterator<StructureInfo<? extends Structure>> iterator =
-			new ConsumingIterator<>(Skript.getStructures().iterator(),
+			new ConsumingIterator<>(SyntaxIndex.getCandidates(Skript.getStructures(), expr).iterator(),
 				elementInfo -> ParserInstance.get().getData(StructureData.class).structureInfo = elementInfo);
 
 		try (ParseLogHandler parseLogHandler = SkriptLogger.startParseLogHandler()) {
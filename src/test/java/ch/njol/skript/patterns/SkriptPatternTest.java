@@ -0,0 +1,122 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.patterns;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class SkriptPatternTest {
+
+	private static String sorted(String characters) {
+		char[] chars = characters.toCharArray();
+		Arrays.sort(chars);
+		return new String(chars);
+	}
+
+	@Test
+	public void testFirstCharacters() {
+		assertEquals("b", PatternCompiler.compile("broadcast").getFirstCharacters());
+		assertEquals("b", PatternCompiler.compile("  Broadcast").getFirstCharacters());
+		assertEquals("cst", sorted(PatternCompiler.compile("[the] (set|change) value").getFirstCharacters()));
+		assertEquals("abc", sorted(PatternCompiler.compile("[[a] [b]] c").getFirstCharacters()));
+		assertEquals("ab", sorted(PatternCompiler.compile("(1:a|2:b) c").getFirstCharacters()));
+		assertEquals("ab", sorted(PatternCompiler.compile(":(a|b) c").getFirstCharacters()));
+		assertNull(PatternCompiler.compile("[the] <.+> value").getFirstCharacters());
+		assertNull(PatternCompiler.compile("(a|<.+>)").getFirstCharacters());
+	}
+
+	@Test
+	public void testFirstWords() {
+		SkriptPattern.FirstWords firstWords = PatternCompiler.compile("[the] (set|change) value").getFirstWords();
+		assertNotNull(firstWords);
+		assertEquals(new HashSet<>(Arrays.asList("the", "set", "change")), firstWords.getWords());
+		assertTrue(firstWords.getPrefixes().isEmpty());
+
+		firstWords = PatternCompiler.compile("a[n] item").getFirstWords();
+		assertNotNull(firstWords);
+		assertEquals(new HashSet<>(Arrays.asList("a", "an")), firstWords.getWords());
+
+		firstWords = PatternCompiler.compile("player's %string%").getFirstWords();
+		assertNotNull(firstWords);
+		assertEquals(Collections.singleton("player"), firstWords.getWords());
+
+		firstWords = PatternCompiler.compile("-%number%").getFirstWords();
+		assertNotNull(firstWords);
+		assertEquals(Collections.singleton("-"), firstWords.getWords());
+
+		// a type may continue the word
+		firstWords = PatternCompiler.compile("x%number%").getFirstWords();
+		assertNotNull(firstWords);
+		assertTrue(firstWords.getWords().isEmpty());
+		assertEquals(Collections.singleton("x"), firstWords.getPrefixes());
+
+		assertNull(PatternCompiler.compile("[the] <.+> value").getFirstWords());
+		assertNull(PatternCompiler.compile("(a|<.+>)").getFirstWords());
+	}
+
+	@Test
+	public void testFirstWord() {
+		assertEquals("broadcast", SkriptPattern.getFirstWord("  Broadcast \"hi\""));
+		assertEquals("player", SkriptPattern.getFirstWord("player's name"));
+		assertEquals("{", SkriptPattern.getFirstWord("{_x}"));
+		assertEquals("", SkriptPattern.getFirstWord(" "));
+	}
+
+	@Test
+	public void testShortcut() {
+		SkriptPattern pattern = PatternCompiler.compile("[the] (set|change) value");
+		assertTrue(pattern.canStartWith('S'));
+		assertTrue(pattern.canStartWith('t'));
+		assertFalse(pattern.canStartWith('v'));
+		assertNotNull(pattern.match("The set value"));
+		assertNotNull(pattern.match("  change value"));
+		assertNull(pattern.match("value"));
+
+		// Patterns that can match nothing still do so
+		assertNotNull(PatternCompiler.compile("[a]").match(""));
+	}
+
+	@Test
+	public void testBacktracking() {
+		// the first choice matches 'a b', but then the trailing 'b' is missing
+		MatchResult result = PatternCompiler.compile("(1¦a b|2¦a) b").match("a b");
+		assertNotNull(result);
+		assertEquals(2, result.getMark());
+
+		result = PatternCompiler.compile("(x:a b|y:a) [z:c] b").match("a b");
+		assertNotNull(result);
+		assertEquals(Collections.singletonList("y"), result.getTags());
+
+		result = PatternCompiler.compile("<a+> [b] <b+>").match("aa bb");
+		assertNotNull(result);
+		assertEquals(2, result.getRegexResults().size());
+		assertEquals("aa", result.getRegexResults().get(0).group());
+		assertEquals("bb", result.getRegexResults().get(1).group());
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.registrations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ch.njol.skript.registrations.ValueCodecs.ValueCodec;
+import ch.njol.skript.variables.Variables;
+import ch.njol.yggdrasil.Yggdrasil;
+import ch.njol.yggdrasil.YggdrasilOutputStream;
+
+public class ValueCodecsTest {
+
+	/**
+	 * Magic number, version and tag, which {@link Classes#serialize(Object)} strips for these types
+	 */
+	private static final int YGGDRASIL_START_LENGTH = 7;
+
+	private static final Object[][] VALUES = {
+			{"byte", (byte) 0}, {"byte", Byte.MIN_VALUE}, {"byte", Byte.MAX_VALUE},
+			{"short", (short) -1}, {"short", Short.MIN_VALUE}, {"short", Short.MAX_VALUE},
+			{"integer", 0}, {"integer", -42}, {"integer", Integer.MIN_VALUE}, {"integer", Integer.MAX_VALUE},
+			{"long", 0L}, {"long", -1L}, {"long", Long.MIN_VALUE}, {"long", Long.MAX_VALUE},
+			{"float", 1.5f}, {"float", -0f}, {"float", Float.NaN},
+			{"double", 0.1}, {"double", -1e300}, {"double", Double.POSITIVE_INFINITY},
+			{"boolean", true}, {"boolean", false},
+			{"string", ""}, {"string", "hello world"}, {"string", "äöü ❤ 😀"},
+			{"string", repeat('a', 0x7FFF)}, {"string", repeat('b', 0x8000)}, {"string", repeat('ä', 0x10000)},
+	};
+
+	@Test
+	public void testSameAsYggdrasil() throws IOException {
+		Yggdrasil yggdrasil = new Yggdrasil(Variables.YGGDRASIL_VERSION);
+		for (Object[] value : VALUES) {
+			ValueCodec<Object> codec = ValueCodecs.getCodec((String) value[0]);
+			assertNotNull((String) value[0], codec);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (YggdrasilOutputStream yout = yggdrasil.newOutputStream(out)) {
+				yout.writeObject(value[1]);
+			}
+			byte[] expected = out.toByteArray();
+			expected = Arrays.copyOfRange(expected, YGGDRASIL_START_LENGTH, expected.length);
+
+			assertArrayEquals(value[0] + ": " + value[1], expected, codec.encode(value[1]));
+			assertEquals(value[1], codec.decode(expected));
+		}
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testTruncated() throws StreamCorruptedException {
+		ValueCodec<Object> codec = ValueCodecs.getCodec("string");
+		assertNotNull(codec);
+		byte[] data = codec.encode("hello world");
+		codec.decode(Arrays.copyOf(data, data.length - 1));
+	}
+
+	private static String repeat(char c, int times) {
+		char[] chars = new char[times];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+}
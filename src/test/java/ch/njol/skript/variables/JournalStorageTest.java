@@ -0,0 +1,156 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.njol.skript.variables.SerializedVariable.Value;
+
+public class JournalStorageTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("skript-journal", ".bin");
+	}
+
+	@After
+	public void tearDown() {
+		//noinspection ResultOfMethodCallIgnored
+		file.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Map<String, Value> records = new HashMap<>();
+		records.put("a", new Value("string", new byte[] {1, 2, 3}));
+		records.put("list::1", new Value("long", new byte[0]));
+		records.put("ünïcödé", new Value("number", new byte[] {-1}));
+		JournalStorage.writeJournal(file, records);
+
+		Map<String, Value> read = new HashMap<>();
+		assertEquals(file.length(), JournalStorage.readJournal(file, read));
+		assertEquals(records.keySet(), read.keySet());
+		for (Map.Entry<String, Value> entry : records.entrySet()) {
+			assertEquals(entry.getValue().type, read.get(entry.getKey()).type);
+			assertArrayEquals(entry.getValue().data, read.get(entry.getKey()).data);
+		}
+	}
+
+	@Test
+	public void testLaterRecordsReplaceEarlierOnes() throws IOException {
+		Map<String, Value> records = new HashMap<>();
+		records.put("a", new Value("string", new byte[] {1}));
+		records.put("b", new Value("string", new byte[] {2}));
+		JournalStorage.writeJournal(file, records);
+
+		Map<String, Value> read = new HashMap<>();
+		read.put("a", new Value("string", new byte[] {0}));
+		read.put("c", new Value("string", new byte[] {0}));
+		JournalStorage.readJournal(file, read);
+		assertArrayEquals(new byte[] {1}, read.get("a").data);
+		assertTrue(read.containsKey("b"));
+		assertTrue(read.containsKey("c"));
+	}
+
+	@Test
+	public void testTornRecord() throws IOException {
+		Map<String, Value> records = new HashMap<>();
+		records.put("a", new Value("string", new byte[] {1, 2, 3, 4}));
+		JournalStorage.writeJournal(file, records);
+		long validLength = file.length();
+
+		// Append half of a record, as if the server crashed while writing it
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(validLength);
+			raf.writeInt(100);
+			raf.writeInt(0);
+			raf.write(new byte[10]);
+		}
+
+		Map<String, Value> read = new HashMap<>();
+		assertEquals(validLength, JournalStorage.readJournal(file, read));
+		assertEquals(1, read.size());
+	}
+
+	@Test
+	public void testChecksumMismatch() throws IOException {
+		Map<String, Value> records = new HashMap<>();
+		records.put("a", new Value("string", new byte[] {1, 2, 3, 4}));
+		JournalStorage.writeJournal(file, records);
+
+		// Flip the last byte of the record's data
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(file.length() - 1);
+			raf.write(5);
+		}
+
+		Map<String, Value> read = new HashMap<>();
+		assertEquals(8, JournalStorage.readJournal(file, read));
+		assertFalse(read.containsKey("a"));
+	}
+
+	@Test
+	public void testMergeSnapshot() throws IOException {
+		File snapshot = new File(file.getParentFile(), file.getName() + ".compacting");
+		File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+		try {
+			Map<String, Value> older = new HashMap<>();
+			older.put("a", new Value("string", new byte[] {1}));
+			older.put("b", new Value("string", new byte[] {1}));
+			older.put("c", new Value("string", new byte[] {1}));
+			JournalStorage.writeJournal(snapshot, older);
+
+			Map<String, Value> newer = new HashMap<>();
+			newer.put("a", null); // deleted during the compaction
+			newer.put("b", new Value("string", new byte[] {2}));
+			JournalStorage.writeJournal(file, newer);
+
+			assertEquals(2, JournalStorage.mergeSnapshot(snapshot, file, tempFile));
+			assertFalse(snapshot.exists());
+
+			Map<String, Value> read = new HashMap<>();
+			assertEquals(file.length(), JournalStorage.readJournal(file, read));
+			assertEquals(2, read.size());
+			assertFalse(read.containsKey("a"));
+			assertArrayEquals(new byte[] {2}, read.get("b").data);
+			assertArrayEquals(new byte[] {1}, read.get("c").data);
+		} finally {
+			//noinspection ResultOfMethodCallIgnored
+			snapshot.delete();
+			//noinspection ResultOfMethodCallIgnored
+			tempFile.delete();
+		}
+	}
+
+}
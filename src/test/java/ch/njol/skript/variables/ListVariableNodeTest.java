@@ -0,0 +1,89 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ListVariableNodeTest {
+
+	@Test
+	public void testNextFreeIndex() {
+		ListVariableNode node = new ListVariableNode();
+		assertEquals(1, node.getNextFreeIndex(1));
+
+		for (int i = 1; i <= 100; i++) {
+			assertEquals(i, node.getNextFreeIndex(1));
+			node.put("" + i, i);
+		}
+		assertEquals(101, node.getNextFreeIndex(1));
+
+		// Holes are filled first
+		node.remove("50");
+		node.remove("7");
+		assertEquals(7, node.getNextFreeIndex(1));
+		assertEquals(50, node.getNextFreeIndex(8));
+		node.put("7", 7);
+		assertEquals(50, node.getNextFreeIndex(1));
+		node.put("50", 50);
+		assertEquals(101, node.getNextFreeIndex(1));
+
+		// Indices placed past the frontier are skipped
+		node.put("102", 102);
+		node.put("101", 101);
+		assertEquals(103, node.getNextFreeIndex(1));
+
+		// Non-canonical and non-integer indices don't occupy anything
+		node.put("0104", 104);
+		node.put("104.5", 104);
+		node.put("abc", 104);
+		assertEquals(103, node.getNextFreeIndex(1));
+		assertEquals(200, node.getNextFreeIndex(200));
+
+		node.clear();
+		assertEquals(1, node.getNextFreeIndex(1));
+	}
+
+	@Test
+	public void testSize() {
+		ListVariableNode node = new ListVariableNode();
+		node.put("a", 1);
+		node.put("b", 2);
+		node.put(null, 3);
+		assertEquals(2, node.getSize());
+
+		// A nested list only counts if it has a value itself
+		ListVariableNode nested = new ListVariableNode();
+		nested.put("x", 4);
+		node.put("c", nested);
+		assertEquals(2, node.getSize());
+		nested.put(null, 5);
+		assertEquals(3, node.getSize());
+		nested.remove(null);
+		assertEquals(2, node.getSize());
+
+		node.remove("a");
+		node.remove("c");
+		assertEquals(1, node.getSize());
+		nested.put(null, 6);
+		assertEquals(1, node.getSize());
+	}
+
+}
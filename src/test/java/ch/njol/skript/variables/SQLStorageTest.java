@@ -0,0 +1,134 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.njol.skript.variables.SerializedVariable.Value;
+
+public class SQLStorageTest {
+
+	private static SerializedVariable variable(String name, String type) {
+		return new SerializedVariable(name, new Value(type, new byte[0]));
+	}
+
+	@Test
+	public void testCoalesce() {
+		Collection<SerializedVariable> coalesced = SQLStorage.coalesce(Arrays.asList(
+			variable("a", "first"),
+			variable("b", "first"),
+			new SerializedVariable("a", null),
+			variable("c", "first"),
+			variable("b", "second")
+		));
+
+		assertEquals(3, coalesced.size());
+		Iterator<SerializedVariable> iterator = coalesced.iterator();
+		SerializedVariable a = iterator.next();
+		assertEquals("a", a.name);
+		assertNull(a.value);
+		SerializedVariable b = iterator.next();
+		assertEquals("b", b.name);
+		assertEquals("second", b.value.type);
+		assertEquals("c", iterator.next().name);
+	}
+
+	@Test
+	public void testExecuteBatch() throws Exception {
+		List<String> writeCalls = new ArrayList<>();
+		List<String> deleteCalls = new ArrayList<>();
+		PreparedStatement writeQuery = recordingStatement(writeCalls);
+		PreparedStatement deleteQuery = recordingStatement(deleteCalls);
+
+		SQLStorage.executeBatch(writeQuery, deleteQuery, Arrays.asList(
+			variable("a", "string"),
+			new SerializedVariable("b", null),
+			variable("c", "long")
+		), "guid");
+
+		assertEquals(Arrays.asList("addBatch", "addBatch", "executeBatch"), filter(writeCalls));
+		assertEquals(Arrays.asList("addBatch", "executeBatch"), filter(deleteCalls));
+
+		// Nothing is executed for an empty batch
+		writeCalls.clear();
+		deleteCalls.clear();
+		SQLStorage.executeBatch(writeQuery, deleteQuery, new ArrayList<>(), "guid");
+		assertEquals(0, writeCalls.size());
+		assertEquals(0, deleteCalls.size());
+	}
+
+	@Test
+	public void testExecuteBatchFailure() {
+		List<String> writeCalls = new ArrayList<>();
+		List<String> deleteCalls = new ArrayList<>();
+		PreparedStatement writeQuery = recordingStatement(writeCalls, false);
+		PreparedStatement deleteQuery = recordingStatement(deleteCalls, true);
+
+		try {
+			SQLStorage.executeBatch(writeQuery, deleteQuery, Arrays.asList(
+				variable("a", "string"),
+				new SerializedVariable("b", null)
+			), "guid");
+			fail("The failing batch was not reported");
+		} catch (SQLException ignored) {}
+
+		// The queued write must not be executed by the next batch
+		assertEquals(Arrays.asList("addBatch", "clearBatch"), filter(writeCalls));
+		assertEquals(Arrays.asList("addBatch", "executeBatch", "clearBatch"), filter(deleteCalls));
+	}
+
+	private static List<String> filter(List<String> calls) {
+		List<String> filtered = new ArrayList<>();
+		for (String call : calls) {
+			if (!call.startsWith("set"))
+				filtered.add(call);
+		}
+		return filtered;
+	}
+
+	private static PreparedStatement recordingStatement(List<String> calls) {
+		return recordingStatement(calls, false);
+	}
+
+	private static PreparedStatement recordingStatement(List<String> calls, boolean failExecute) {
+		return (PreparedStatement) Proxy.newProxyInstance(SQLStorageTest.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+			(proxy, method, args) -> {
+				calls.add(method.getName());
+				if (!method.getName().equals("executeBatch"))
+					return null;
+				if (failExecute)
+					throw new SQLException("executeBatch failed");
+				return new int[0];
+			});
+	}
+
+}